@@ -1,9 +1,21 @@
 package com.gazapps;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import com.gazapps.inference.MultiToolOrchestrator;
+import com.gazapps.inference.PipelineStage;
+import com.gazapps.inference.ServerBulkheads;
+import com.gazapps.inference.StageClients;
 import com.gazapps.llm.LLMClient;
 import com.gazapps.llm.LLMClientFactory;
 import com.gazapps.mcp.MCPService;
+import com.gazapps.mcp.StartupMode;
 import com.gazapps.ui.ChatInterface;
 
 public class ChatApp {
@@ -11,12 +23,14 @@ public class ChatApp {
         try {
             System.out.println("Starting AI Chat Assistant...");
             
-            MCPService mcpService = new MCPService();
-            LLMClient llmClient = createLLMClient();
+            MCPService mcpService = new MCPService(startupMode(), poolSize(), nioTransport(), builtinTools());
+            StageClients clients = createStageClients();
             
-            MultiToolOrchestrator orchestrator = new MultiToolOrchestrator(llmClient, mcpService);
+            MultiToolOrchestrator orchestrator = new MultiToolOrchestrator(clients, mcpService,
+                new ServerBulkheads(serverConcurrency()));
+            orchestrator.setHedgeDelay(hedgeDelay());
             
-            ChatInterface chat = new ChatInterface(mcpService, llmClient, orchestrator);
+            ChatInterface chat = new ChatInterface(mcpService, clients, orchestrator);
             chat.startChat();
             
         } catch (Exception e) {
@@ -25,18 +39,156 @@ public class ChatApp {
         }
     }
     
-    private static LLMClient createLLMClient() {
-        String groqKey = System.getenv("GROQ_API_KEY");
-        String geminiKey = System.getenv("GEMINI_API_KEY");
-        
-        if (groqKey != null && !groqKey.isEmpty()) {
-            //return LLMClientFactory.createGroqClient(groqKey);
-        } else if (geminiKey != null && !geminiKey.isEmpty()) {
-           // return LLMClientFactory.createGeminiClient(geminiKey);
-        } else {
+    private static StartupMode startupMode() {
+        String mode = System.getenv("MCP_STARTUP");
+        if (mode == null || mode.isBlank()) {
+            return StartupMode.BACKGROUND;
+        }
+        try {
+            return StartupMode.valueOf(mode.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown MCP_STARTUP mode '" + mode + "', using background startup");
+            return StartupMode.BACKGROUND;
+        }
+    }
+    
+    private static int poolSize() {
+        String size = System.getenv("MCP_POOL_SIZE");
+        if (size == null || size.isBlank()) {
+            return MCPService.DEFAULT_POOL_SIZE;
+        }
+        try {
+            return Integer.parseInt(size.trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid MCP_POOL_SIZE '" + size + "', using " + MCPService.DEFAULT_POOL_SIZE);
+            return MCPService.DEFAULT_POOL_SIZE;
+        }
+    }
+    
+    // The SDK transport stays the default until the NIO transport has benchmark numbers behind it
+    private static boolean nioTransport() {
+        String transport = System.getenv("MCP_TRANSPORT");
+        if (transport == null || transport.isBlank() || transport.trim().equalsIgnoreCase("sdk")) {
+            return false;
+        }
+        if (transport.trim().equalsIgnoreCase("nio")) {
+            return true;
+        }
+        System.out.println("Unknown MCP_TRANSPORT '" + transport + "', using the SDK stdio transport");
+        return false;
+    }
+    
+    // MCP_BUILTIN_TOOLS=off runs the filesystem and time servers as external processes again
+    private static boolean builtinTools() {
+        String builtin = System.getenv("MCP_BUILTIN_TOOLS");
+        if (builtin == null || builtin.isBlank()) {
+            return true;
+        }
+        return !List.of("off", "false", "0", "no").contains(builtin.trim().toLowerCase());
+    }
+    
+    private static int serverConcurrency() {
+        String limit = System.getenv("MCP_SERVER_CONCURRENCY");
+        if (limit == null || limit.isBlank()) {
+            return ServerBulkheads.DEFAULT_LIMIT;
+        }
+        try {
+            return Integer.parseInt(limit.trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid MCP_SERVER_CONCURRENCY '" + limit + "', using " + ServerBulkheads.DEFAULT_LIMIT);
+            return ServerBulkheads.DEFAULT_LIMIT;
+        }
+    }
+    
+    private static Duration hedgeDelay() {
+        String millis = System.getenv("COMPETITIVE_HEDGE_MS");
+        if (millis == null || millis.isBlank()) {
+            return Duration.ZERO;
+        }
+        try {
+            return Duration.ofMillis(Long.parseLong(millis.trim()));
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid COMPETITIVE_HEDGE_MS '" + millis + "', starting competitors together");
+            return Duration.ZERO;
+        }
+    }
+    
+    private static StageClients createStageClients() {
+        List<String> groqKeys = parseKeys(System.getenv("GROQ_API_KEY"));
+        List<String> geminiKeys = parseKeys(System.getenv("GEMINI_API_KEY"));
+        if (groqKeys.isEmpty() && geminiKeys.isEmpty()) {
             throw new RuntimeException("No LLM API key found. Set GROQ_API_KEY or GEMINI_API_KEY environment variable.");
         }
         
-        return LLMClientFactory.createGroqClient(groqKey);
+        // Stages configured with the same models share one client chain (pools, cache, coalescing)
+        Map<String, LLMClient> chains = new HashMap<>();
+        StageClients clients = null;
+        for (PipelineStage stage : stageOrder()) {
+            String groqModel = modelFor("GROQ", stage, LLMClientFactory.GROQ_DEFAULT_MODEL, LLMClientFactory.GROQ_FAST_MODEL);
+            String geminiModel = modelFor("GEMINI", stage, LLMClientFactory.GEMINI_DEFAULT_MODEL, LLMClientFactory.GEMINI_FAST_MODEL);
+            LLMClient client = chains.computeIfAbsent(groqModel + "|" + geminiModel,
+                ignored -> createLLMClient(groqKeys, groqModel, geminiKeys, geminiModel, chains.size()));
+            if (clients == null) {
+                clients = StageClients.of(client);
+            } else {
+                clients.with(stage, client);
+            }
+        }
+        return clients;
+    }
+    
+    // RESPONSE first so it becomes the default client and owns the primary cache file
+    private static List<PipelineStage> stageOrder() {
+        List<PipelineStage> order = new ArrayList<>(List.of(PipelineStage.values()));
+        order.remove(PipelineStage.RESPONSE);
+        order.add(0, PipelineStage.RESPONSE);
+        return order;
+    }
+    
+    private static String modelFor(String provider, PipelineStage stage, String defaultModel, String fastModel) {
+        String stageModel = System.getenv(provider + "_MODEL_" + stage.name());
+        if (stageModel != null && !stageModel.isBlank()) {
+            return stageModel.trim();
+        }
+        if (stage == PipelineStage.ANALYSIS || stage == PipelineStage.CONDITION) {
+            return fastModel;
+        }
+        String model = System.getenv(provider + "_MODEL");
+        return model != null && !model.isBlank() ? model.trim() : defaultModel;
+    }
+    
+    private static LLMClient createLLMClient(List<String> groqKeys, String groqModel,
+                                             List<String> geminiKeys, String geminiModel, int index) {
+        List<LLMClient> backends = new ArrayList<>();
+        
+        if (!groqKeys.isEmpty()) {
+            backends.add(LLMClientFactory.createGroqPool(groqKeys, groqModel));
+        }
+        if (!geminiKeys.isEmpty()) {
+            backends.add(LLMClientFactory.createGeminiPool(geminiKeys, geminiModel));
+        }
+        
+        LLMClient client = backends.size() == 1
+            ? backends.get(0)
+            : LLMClientFactory.createRouter(backends, true);
+        return withCache(LLMClientFactory.withCoalescing(client), index);
+    }
+    
+    private static List<String> parseKeys(String value) {
+        if (value == null || value.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+            .map(String::trim)
+            .filter(key -> !key.isEmpty())
+            .toList();
+    }
+    
+    private static LLMClient withCache(LLMClient client, int index) {
+        String cacheFile = System.getenv("LLM_CACHE_FILE");
+        if (cacheFile != null && !cacheFile.isEmpty()) {
+            return LLMClientFactory.withCache(client, Path.of(index == 0 ? cacheFile : cacheFile + "." + index));
+        }
+        return LLMClientFactory.withCache(client);
     }
 }
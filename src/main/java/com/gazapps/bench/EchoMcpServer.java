@@ -0,0 +1,68 @@
+package com.gazapps.bench;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Minimal MCP server on stdio with a single "echo" tool, used by {@link TransportBenchmark}
+ * so transport overhead can be measured without any real tool work.
+ */
+public class EchoMcpServer {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        PrintStream out = new PrintStream(System.out, false, StandardCharsets.UTF_8);
+
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode request = mapper.readTree(line);
+            if (!request.has("id") || !request.has("method")) {
+                continue;
+            }
+            ObjectNode response = mapper.createObjectNode();
+            response.put("jsonrpc", "2.0");
+            response.set("id", request.get("id"));
+            response.set("result", resultFor(request.get("method").asText(), request.path("params")));
+            out.println(mapper.writeValueAsString(response));
+            out.flush();
+        }
+    }
+
+    private static JsonNode resultFor(String method, JsonNode params) {
+        ObjectNode result = mapper.createObjectNode();
+        switch (method) {
+            case "initialize" -> {
+                result.put("protocolVersion", params.path("protocolVersion").asText("2024-11-05"));
+                result.putObject("capabilities").putObject("tools");
+                result.putObject("serverInfo").put("name", "echo").put("version", "1.0");
+            }
+            case "tools/list" -> {
+                ObjectNode tool = result.putArray("tools").addObject();
+                tool.put("name", "echo");
+                tool.put("description", "Returns its message argument");
+                ObjectNode schema = tool.putObject("inputSchema");
+                schema.put("type", "object");
+                schema.putObject("properties").putObject("message").put("type", "string");
+                schema.putArray("required").add("message");
+            }
+            case "tools/call" -> {
+                ObjectNode content = result.putArray("content").addObject();
+                content.put("type", "text");
+                content.put("text", params.path("arguments").path("message").asText());
+                result.put("isError", false);
+            }
+            default -> { }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,87 @@
+package com.gazapps.bench;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import com.gazapps.mcp.NioStdioClientTransport;
+
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.transport.ServerParameters;
+import io.modelcontextprotocol.client.transport.StdioClientTransport;
+import io.modelcontextprotocol.spec.McpClientTransport;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+
+/**
+ * Compares tool-call throughput of the SDK's StdioClientTransport and
+ * NioStdioClientTransport against a local {@link EchoMcpServer} process.
+ *
+ * <pre>
+ * mvn compile exec:java -Dexec.mainClass="com.gazapps.bench.TransportBenchmark" -Dexec.args="20000 64"
+ * </pre>
+ *
+ * Arguments are the number of calls per round (default 10000) and how many
+ * are kept in flight at once (default 32).
+ */
+public class TransportBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int inFlight = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+
+        ServerParameters server = ServerParameters.builder(
+                ProcessHandle.current().info().command().orElse("java"))
+            .args("-cp", System.getProperty("java.class.path"), EchoMcpServer.class.getName())
+            .build();
+
+        System.out.printf("%d calls per round, %d in flight%n", calls, inFlight);
+        run("StdioClientTransport", StdioClientTransport::new, server, calls, inFlight);
+        run("NioStdioClientTransport", NioStdioClientTransport::new, server, calls, inFlight);
+    }
+
+    private static void run(String name, Function<ServerParameters, McpClientTransport> transport,
+                            ServerParameters server, int calls, int inFlight) {
+        McpAsyncClient client = McpClient.async(transport.apply(server))
+            .requestTimeout(Duration.ofSeconds(30))
+            .build();
+        try {
+            client.initialize().block();
+            callAll(client, calls / 10, inFlight); // warm up
+
+            double best = 0;
+            for (int round = 1; round <= ROUNDS; round++) {
+                long start = System.nanoTime();
+                callAll(client, calls, inFlight);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                best = Math.max(best, calls / seconds);
+                System.out.printf("%-24s round %d: %,.0f calls/s%n", name, round, calls / seconds);
+            }
+            System.out.printf("%-24s best: %,.0f calls/s%n", name, best);
+        } finally {
+            client.closeGracefully().block();
+        }
+    }
+
+    // Keeps up to inFlight requests outstanding on the one pipe
+    private static void callAll(McpAsyncClient client, int calls, int inFlight) {
+        List<CompletableFuture<Void>> lanes = new ArrayList<>();
+        for (int lane = 0; lane < inFlight; lane++) {
+            int first = lane;
+            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+            for (int call = first; call < calls; call += inFlight) {
+                String message = "message " + call;
+                chain = chain.thenCompose(ignored -> client
+                    .callTool(new CallToolRequest("echo", Map.of("message", message)))
+                    .toFuture()
+                    .thenAccept(result -> { }));
+            }
+            lanes.add(chain);
+        }
+        CompletableFuture.allOf(lanes.toArray(CompletableFuture[]::new)).join();
+    }
+}
@@ -0,0 +1,557 @@
+package com.gazapps.inference;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gazapps.mcp.ToolResult;
+
+/**
+ * Small boolean expression language over step results, evaluated locally so plans can
+ * branch and stop loops without asking the LLM. Expressions only read values; there is
+ * no assignment, method access or loop construct.
+ *
+ * <pre>
+ *   last.success &amp;&amp; number(last.result) &gt; 25
+ *   weather.json.current.temp &lt;= 0 || weather.result contains 'snow'
+ *   search.result =~ '(?i)no matches' and iteration &lt; 3
+ * </pre>
+ *
+ * A reference starts with a step id, {@code last} or {@code iteration}. Step fields are
+ * {@code result}, {@code success} and {@code message}; {@code json} or any other name reads
+ * the result content as JSON and follows the path, with {@code [n]} for array elements.
+ * Operators: {@code == != < <= > >= =~ !~ contains && || !} and {@code and or not};
+ * functions: {@code number(x)} (first number in the text), {@code length(x)}, {@code lower(x)}.
+ * Regular expressions are limited in length and abandoned after a short deadline, so a
+ * pattern with catastrophic backtracking fails the evaluation instead of hanging the plan.
+ */
+public final class ConditionExpression {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(?:\\.\\d+)?");
+    private static final int MAX_LENGTH = 1000;
+    private static final int MAX_PATTERN_LENGTH = 200;
+    private static final long MATCH_TIMEOUT_NANOS = 100_000_000;
+
+    private final String source;
+    private final Node root;
+
+    private ConditionExpression(String source, Node root) {
+        this.source = source;
+        this.root = root;
+    }
+
+    /** Parses an expression; throws IllegalArgumentException with the position of the error. */
+    public static ConditionExpression parse(String source) {
+        if (source == null || source.isBlank()) {
+            throw new IllegalArgumentException("Empty condition");
+        }
+        if (source.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Condition longer than " + MAX_LENGTH + " characters");
+        }
+        Parser parser = new Parser(source);
+        Node root = parser.parseOr();
+        parser.expectEnd();
+        return new ConditionExpression(source, root);
+    }
+
+    /**
+     * Evaluates against the given bindings. A binding is either a ToolResult, reached
+     * through its fields, or a plain value such as the iteration number.
+     */
+    public boolean test(Map<String, ?> bindings) {
+        return truthy(root.eval(new Scope(bindings)));
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private sealed interface Node permits Literal, Reference, Call, Not, Logical, Comparison {
+        Object eval(Scope scope);
+    }
+
+    private record Literal(Object value) implements Node {
+        public Object eval(Scope scope) {
+            return value;
+        }
+    }
+
+    private record Reference(String name, List<Object> path) implements Node {
+        public Object eval(Scope scope) {
+            return scope.resolve(name, path);
+        }
+    }
+
+    private record Call(String function, Node argument) implements Node {
+        public Object eval(Scope scope) {
+            Object value = argument.eval(scope);
+            return switch (function) {
+                case "number" -> toNumber(value);
+                case "length" -> value == null ? 0.0 : (double) text(value).length();
+                case "lower" -> value == null ? null : text(value).toLowerCase();
+                default -> throw new IllegalStateException("Unknown function " + function);
+            };
+        }
+    }
+
+    private record Not(Node operand) implements Node {
+        public Object eval(Scope scope) {
+            return !truthy(operand.eval(scope));
+        }
+    }
+
+    private record Logical(boolean and, Node left, Node right) implements Node {
+        public Object eval(Scope scope) {
+            boolean first = truthy(left.eval(scope));
+            if (and ? !first : first) {
+                return first;
+            }
+            return truthy(right.eval(scope));
+        }
+    }
+
+    private record Comparison(String operator, Node left, Node right, Pattern pattern) implements Node {
+        public Object eval(Scope scope) {
+            Object a = left.eval(scope);
+            if (pattern != null || operator.endsWith("~")) {
+                Pattern regex = pattern != null ? pattern : compile(text(right.eval(scope)));
+                boolean found = a != null && regex != null && regex.matcher(new DeadlineText(text(a))).find();
+                return operator.equals("=~") == found;
+            }
+            Object b = right.eval(scope);
+            return switch (operator) {
+                case "==" -> equal(a, b);
+                case "!=" -> !equal(a, b);
+                case "contains" -> a != null && b != null && text(a).contains(text(b));
+                default -> {
+                    Double x = toNumber(a);
+                    Double y = toNumber(b);
+                    if (x == null || y == null) {
+                        yield false;
+                    }
+                    int order = Double.compare(x, y);
+                    yield switch (operator) {
+                        case "<" -> order < 0;
+                        case "<=" -> order <= 0;
+                        case ">" -> order > 0;
+                        default -> order >= 0;
+                    };
+                }
+            };
+        }
+    }
+
+    private static final class Scope {
+        private final Map<String, ?> bindings;
+        private final Map<ToolResult, JsonNode> parsed = new HashMap<>();
+
+        Scope(Map<String, ?> bindings) {
+            this.bindings = bindings;
+        }
+
+        Object resolve(String name, List<Object> path) {
+            Object bound = bindings.get(name);
+            if (!(bound instanceof ToolResult result)) {
+                return path.isEmpty() ? bound : null;
+            }
+            if (path.isEmpty()) {
+                return result.success() ? result.content() : null;
+            }
+            Object field = path.get(0);
+            if (field.equals("result") && path.size() == 1) {
+                return result.content();
+            }
+            if (field.equals("success") && path.size() == 1) {
+                return result.success();
+            }
+            if (field.equals("message") && path.size() == 1) {
+                return result.message();
+            }
+            JsonNode node = json(result);
+            for (Object segment : field.equals("json") || field.equals("result") ? path.subList(1, path.size()) : path) {
+                if (node == null) {
+                    return null;
+                }
+                node = segment instanceof Integer index ? node.get(index) : node.get((String) segment);
+            }
+            return fromJson(node);
+        }
+
+        // Content is parsed once per evaluation, and only when a path reaches into it
+        private JsonNode json(ToolResult result) {
+            return parsed.computeIfAbsent(result, key -> {
+                if (key.content() == null) {
+                    return null;
+                }
+                try {
+                    return objectMapper.readTree(key.content());
+                } catch (JsonProcessingException e) {
+                    return null;
+                }
+            });
+        }
+    }
+
+    private static Object fromJson(JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            return null;
+        }
+        if (node.isNumber()) {
+            return node.doubleValue();
+        }
+        if (node.isBoolean()) {
+            return node.booleanValue();
+        }
+        return node.isTextual() ? node.textValue() : node.toString();
+    }
+
+    private static boolean equal(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        Double x = exactNumber(a);
+        Double y = exactNumber(b);
+        if (x != null && y != null) {
+            return x.equals(y);
+        }
+        return text(a).equals(text(b));
+    }
+
+    // Equality only treats text as a number when the whole text is one, so "5" == 5 but not "v5"
+    private static Double exactNumber(Object value) {
+        if (value instanceof Double number) {
+            return number;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        return value instanceof String text && NUMBER.matcher(text.trim()).matches() ? Double.parseDouble(text.trim()) : null;
+    }
+
+    private static boolean truthy(Object value) {
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue() != 0;
+        }
+        return value != null && !text(value).isEmpty() && !text(value).equalsIgnoreCase("false");
+    }
+
+    // Numbers pass through; text yields its first number, so "21.5 °C" compares as 21.5
+    private static Double toNumber(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value == null || value instanceof Boolean) {
+            return null;
+        }
+        Matcher matcher = NUMBER.matcher(text(value));
+        return matcher.find() ? Double.parseDouble(matcher.group()) : null;
+    }
+
+    private static String text(Object value) {
+        if (value instanceof Double number && number == Math.rint(number) && !Double.isInfinite(number)) {
+            return String.valueOf(number.longValue());
+        }
+        return String.valueOf(value);
+    }
+
+    private static Pattern compile(String regex) {
+        if (regex.length() > MAX_PATTERN_LENGTH) {
+            throw new IllegalStateException("regex longer than " + MAX_PATTERN_LENGTH + " characters");
+        }
+        try {
+            return Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Text that fails every read once the match deadline has passed or the thread is
+     * interrupted; the regex engine reads through charAt, so a runaway match stops there.
+     */
+    private static final class DeadlineText implements CharSequence {
+        private final CharSequence text;
+        private final long deadline;
+        private int reads;
+
+        DeadlineText(CharSequence text) {
+            this(text, System.nanoTime() + MATCH_TIMEOUT_NANOS);
+        }
+
+        private DeadlineText(CharSequence text, long deadline) {
+            this.text = text;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public char charAt(int index) {
+            // Checking the clock on every read would dominate short matches
+            if ((++reads & 0x3FF) == 0
+                    && (System.nanoTime() > deadline || Thread.currentThread().isInterrupted())) {
+                throw new IllegalStateException("regex match took longer than "
+                    + MATCH_TIMEOUT_NANOS / 1_000_000 + " ms or was interrupted");
+            }
+            return text.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new DeadlineText(text.subSequence(start, end), deadline);
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+
+    private static final class Parser {
+        private final String source;
+        private int position;
+
+        Parser(String source) {
+            this.source = source;
+        }
+
+        Node parseOr() {
+            Node left = parseAnd();
+            while (accept("||") || acceptWord("or")) {
+                left = new Logical(false, left, parseAnd());
+            }
+            return left;
+        }
+
+        private Node parseAnd() {
+            Node left = parseNot();
+            while (accept("&&") || acceptWord("and")) {
+                left = new Logical(true, left, parseNot());
+            }
+            return left;
+        }
+
+        private Node parseNot() {
+            if (accept("!") || acceptWord("not")) {
+                return new Not(parseNot());
+            }
+            return parseComparison();
+        }
+
+        private Node parseComparison() {
+            Node left = parseValue();
+            String operator = peekOperator("==", "!=", "<=", ">=", "=~", "!~", "<", ">");
+            if (operator != null) {
+                position += operator.length();
+            } else if (acceptWord("contains")) {
+                operator = "contains";
+            } else if (acceptWord("matches")) {
+                operator = "=~";
+            } else {
+                return left;
+            }
+            Node right = parseValue();
+            Pattern pattern = null;
+            if (operator.endsWith("~") && right instanceof Literal literal) {
+                if (text(literal.value()).length() > MAX_PATTERN_LENGTH) {
+                    throw error("regex longer than " + MAX_PATTERN_LENGTH + " characters");
+                }
+                try {
+                    pattern = Pattern.compile(text(literal.value()));
+                } catch (PatternSyntaxException e) {
+                    throw error("invalid regex: " + e.getDescription());
+                }
+            }
+            return new Comparison(operator, left, right, pattern);
+        }
+
+        private Node parseValue() {
+            skipSpaces();
+            if (position >= source.length()) {
+                throw error("value expected");
+            }
+            char c = source.charAt(position);
+            if (c == '(') {
+                position++;
+                Node inner = parseOr();
+                expect(")");
+                return inner;
+            }
+            if (c == '\'' || c == '"') {
+                return new Literal(parseString(c));
+            }
+            if (c == '-' || Character.isDigit(c)) {
+                return new Literal(parseNumber());
+            }
+            if (c == '$' && source.startsWith("${", position)) {
+                position += 2;
+                Node reference = parseReference(parseIdentifier());
+                expect("}");
+                return reference;
+            }
+            if (Character.isLetter(c) || c == '_') {
+                String name = parseIdentifier();
+                if (name.equals("true") || name.equals("false")) {
+                    return new Literal(Boolean.parseBoolean(name));
+                }
+                if (name.equals("null")) {
+                    return new Literal(null);
+                }
+                skipSpaces();
+                if (peek('(')) {
+                    if (!List.of("number", "length", "lower").contains(name)) {
+                        throw error("unknown function " + name);
+                    }
+                    position++;
+                    Node argument = parseOr();
+                    expect(")");
+                    return new Call(name, argument);
+                }
+                return parseReference(name);
+            }
+            throw error("unexpected '" + c + "'");
+        }
+
+        private Node parseReference(String name) {
+            List<Object> path = new ArrayList<>();
+            while (position < source.length()) {
+                if (peek('.')) {
+                    position++;
+                    path.add(parseIdentifier());
+                } else if (peek('[')) {
+                    position++;
+                    int start = position;
+                    while (position < source.length() && Character.isDigit(source.charAt(position))) {
+                        position++;
+                    }
+                    if (start == position) {
+                        throw error("array index expected");
+                    }
+                    path.add(Integer.parseInt(source.substring(start, position)));
+                    expect("]");
+                } else {
+                    break;
+                }
+            }
+            return new Reference(name, List.copyOf(path));
+        }
+
+        // Step ids may contain '-', which the language has no other use for
+        private String parseIdentifier() {
+            int start = position;
+            while (position < source.length()) {
+                char c = source.charAt(position);
+                if (!Character.isLetterOrDigit(c) && c != '_' && !(c == '-' && position > start)) {
+                    break;
+                }
+                position++;
+            }
+            if (start == position) {
+                throw error("name expected");
+            }
+            return source.substring(start, position);
+        }
+
+        private String parseString(char quote) {
+            StringBuilder value = new StringBuilder();
+            position++;
+            while (position < source.length()) {
+                char c = source.charAt(position++);
+                if (c == quote) {
+                    return value.toString();
+                }
+                if (c == '\\' && position < source.length()) {
+                    char next = source.charAt(position++);
+                    // Keep backslashes that are not quoting, so regex escapes like \d survive
+                    if (next != quote && next != '\\') {
+                        value.append('\\');
+                    }
+                    value.append(next);
+                } else {
+                    value.append(c);
+                }
+            }
+            throw error("unterminated string");
+        }
+
+        private Double parseNumber() {
+            Matcher matcher = NUMBER.matcher(source).region(position, source.length());
+            if (!matcher.lookingAt()) {
+                throw error("number expected");
+            }
+            position = matcher.end();
+            return Double.parseDouble(matcher.group());
+        }
+
+        void expectEnd() {
+            skipSpaces();
+            if (position < source.length()) {
+                throw error("unexpected '" + source.charAt(position) + "'");
+            }
+        }
+
+        private void expect(String token) {
+            if (!accept(token)) {
+                throw error("'" + token + "' expected");
+            }
+        }
+
+        private boolean accept(String token) {
+            skipSpaces();
+            if (source.startsWith(token, position)) {
+                position += token.length();
+                return true;
+            }
+            return false;
+        }
+
+        private boolean acceptWord(String word) {
+            skipSpaces();
+            int end = position + word.length();
+            if (source.startsWith(word, position)
+                    && (end == source.length() || !Character.isLetterOrDigit(source.charAt(end)))) {
+                position = end;
+                return true;
+            }
+            return false;
+        }
+
+        private String peekOperator(String... operators) {
+            skipSpaces();
+            for (String operator : operators) {
+                if (source.startsWith(operator, position)) {
+                    return operator;
+                }
+            }
+            return null;
+        }
+
+        private boolean peek(char c) {
+            return position < source.length() && source.charAt(position) == c;
+        }
+
+        private void skipSpaces() {
+            while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String reason) {
+            return new IllegalArgumentException("Invalid condition at position " + position + ": " + reason);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.gazapps.inference;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.gazapps.mcp.MCPService;
+import com.gazapps.mcp.Tool;
+import com.gazapps.mcp.ToolRegistry;
+
+public class IntentRouter {
+    public static final double DEFAULT_CONFIDENCE_THRESHOLD = 0.9;
+    private static final String DIRECT_LABEL = "DIRECT_ANSWER";
+    private static final int MIN_LABEL_SAMPLES = 3;
+    private static final int MAX_REMEMBERED_QUERIES = 1000;
+    private static final Pattern TOKEN_SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Queries that lean on the previous answer need the LLM to see lastResult
+    private static final Set<String> CONTEXT_WORDS = Set.of("it", "that", "this", "them", "those", "previous", "last", "again");
+
+    private final ToolRegistry registry;
+    private final double confidenceThreshold;
+    private final List<Rule> rules = new CopyOnWriteArrayList<>();
+    private final Map<String, LabelStats> labels = new HashMap<>();
+    private final Map<String, Integer> vocabulary = new HashMap<>();
+    private final Map<String, Outcome> rememberedQueries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Outcome> eldest) {
+            return size() > MAX_REMEMBERED_QUERIES;
+        }
+    };
+
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong ruleHits = new AtomicLong();
+    private final AtomicLong classifierHits = new AtomicLong();
+
+    public IntentRouter(MCPService mcpService) {
+        this(mcpService, DEFAULT_CONFIDENCE_THRESHOLD);
+    }
+
+    public IntentRouter(MCPService mcpService, double confidenceThreshold) {
+        this(mcpService.getToolRegistry(), confidenceThreshold);
+    }
+
+    IntentRouter(ToolRegistry registry, double confidenceThreshold) {
+        this.registry = registry;
+        this.confidenceThreshold = confidenceThreshold;
+        registerDefaultRules();
+    }
+
+    public void addRule(String regex, String serverId, String toolName, Function<Matcher, Map<String, Object>> parameters) {
+        rules.add(new Rule(Pattern.compile(regex, Pattern.CASE_INSENSITIVE), serverId, toolName, parameters));
+    }
+
+    Optional<QueryAnalysis> route(String query) {
+        queries.incrementAndGet();
+        String normalized = normalize(query);
+
+        for (Rule rule : rules) {
+            Matcher matcher = rule.pattern().matcher(normalized);
+            if (!matcher.find()) {
+                continue;
+            }
+            Map<String, Object> parameters = rule.parameters().apply(matcher);
+            Optional<Tool> tool = findTool(rule.serverId(), rule.toolName());
+            if (parameters != null && tool.isPresent() && acceptsParameters(tool.get(), parameters)) {
+                ruleHits.incrementAndGet();
+                return Optional.of(new QueryAnalysis(
+                    QueryAnalysis.ExecutionType.SINGLE_TOOL, rule.serverId() + ":" + rule.toolName(), parameters));
+            }
+        }
+
+        Optional<QueryAnalysis> classified = classify(normalized);
+        classified.ifPresent(analysis -> classifierHits.incrementAndGet());
+        return classified;
+    }
+
+    synchronized void learn(String query, QueryAnalysis analysis) {
+        // An unparsable analysis says nothing about the query, only about the model's output
+        if (analysis.isFallback()) {
+            return;
+        }
+        String label = switch (analysis.execution()) {
+            case DIRECT_ANSWER -> DIRECT_LABEL;
+            case SINGLE_TOOL -> analysis.details();
+            case MULTI_TOOL -> null;
+        };
+        if (label == null) {
+            return;
+        }
+
+        String normalized = normalize(query);
+        LabelStats stats = labels.computeIfAbsent(label, ignored -> new LabelStats());
+        stats.samples++;
+        for (String token : tokenize(normalized)) {
+            stats.tokenCounts.merge(token, 1, Integer::sum);
+            stats.totalTokens++;
+            vocabulary.merge(token, 1, Integer::sum);
+        }
+        rememberedQueries.put(normalized, new Outcome(label,
+            analysis.parameters() != null ? new HashMap<>(analysis.parameters()) : Map.of()));
+    }
+
+    public long getQueryCount() { return queries.get(); }
+    public long getRuleHits() { return ruleHits.get(); }
+    public long getClassifierHits() { return classifierHits.get(); }
+
+    public double getHitRate() {
+        long total = queries.get();
+        return total == 0 ? 0.0 : (double) (ruleHits.get() + classifierHits.get()) / total;
+    }
+
+    private synchronized Optional<QueryAnalysis> classify(String normalized) {
+        List<String> tokens = tokenize(normalized);
+        if (labels.size() < 2 || tokens.isEmpty() || tokens.stream().anyMatch(CONTEXT_WORDS::contains)) {
+            return Optional.empty();
+        }
+
+        // Multinomial naive Bayes with Laplace smoothing over the labels seen so far
+        int totalSamples = labels.values().stream().mapToInt(stats -> stats.samples).sum();
+        Map<String, Double> scores = new HashMap<>();
+        for (Map.Entry<String, LabelStats> entry : labels.entrySet()) {
+            LabelStats stats = entry.getValue();
+            double score = Math.log((double) stats.samples / totalSamples);
+            for (String token : tokens) {
+                int count = stats.tokenCounts.getOrDefault(token, 0);
+                score += Math.log((count + 1.0) / (stats.totalTokens + vocabulary.size()));
+            }
+            scores.put(entry.getKey(), score);
+        }
+
+        String best = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            if (entry.getValue() > bestScore) {
+                best = entry.getKey();
+                bestScore = entry.getValue();
+            }
+        }
+        double normalizer = 0;
+        for (double score : scores.values()) {
+            normalizer += Math.exp(score - bestScore);
+        }
+        double confidence = 1.0 / normalizer;
+
+        if (confidence < confidenceThreshold || labels.get(best).samples < MIN_LABEL_SAMPLES) {
+            return Optional.empty();
+        }
+        if (DIRECT_LABEL.equals(best)) {
+            return Optional.of(new QueryAnalysis(QueryAnalysis.ExecutionType.DIRECT_ANSWER, "Fast path", null));
+        }
+
+        String[] toolParts = best.split(":");
+        Optional<Tool> tool = toolParts.length == 2 ? findTool(toolParts[0], toolParts[1]) : Optional.empty();
+        if (tool.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Parameters can only be reused for a query seen before, or skipped when the tool needs none
+        Outcome remembered = rememberedQueries.get(normalized);
+        if (remembered != null && remembered.label().equals(best)) {
+            return Optional.of(new QueryAnalysis(QueryAnalysis.ExecutionType.SINGLE_TOOL, best, new HashMap<>(remembered.parameters())));
+        }
+        if (requiredParameters(tool.get()).isEmpty()) {
+            return Optional.of(new QueryAnalysis(QueryAnalysis.ExecutionType.SINGLE_TOOL, best, new HashMap<>()));
+        }
+        return Optional.empty();
+    }
+
+    private void registerDefaultRules() {
+        addRule("^(?:what time is it|what(?:'s| is) the (?:current )?time)(?: now)?\\??$",
+            "time-server", "get_current_time",
+            matcher -> Map.of("timezone", ZoneId.systemDefault().getId()));
+        addRule("\\b(?:what time is it|what(?:'s| is) the (?:current )?time|current time|time now) in ([\\p{L} .'-]+?)\\s*\\??$",
+            "time-server", "get_current_time",
+            matcher -> zoneForCity(matcher.group(1)).map(zone -> Map.<String, Object>of("timezone", zone)).orElse(null));
+        addRule("\\b(?:weather )?alerts? (?:for|in) ([a-z]{2})\\s*\\??$",
+            "weather-server", "get-alerts",
+            matcher -> Map.of("state", matcher.group(1).toUpperCase()));
+    }
+
+    private static Optional<String> zoneForCity(String city) {
+        String wanted = city.trim().replace(' ', '_');
+        return ZoneId.getAvailableZoneIds().stream()
+            .filter(zone -> zone.contains("/"))
+            .filter(zone -> zone.substring(zone.lastIndexOf('/') + 1).equalsIgnoreCase(wanted))
+            .sorted()
+            .findFirst();
+    }
+
+    private Optional<Tool> findTool(String serverId, String toolName) {
+        return Optional.ofNullable(registry.get(serverId, toolName));
+    }
+
+    private static boolean acceptsParameters(Tool tool, Map<String, Object> parameters) {
+        Object properties = tool.inputSchema().get("properties");
+        if (!(properties instanceof Map<?, ?> propertyMap)) {
+            return parameters.isEmpty();
+        }
+        return propertyMap.keySet().containsAll(parameters.keySet())
+            && parameters.keySet().containsAll(requiredParameters(tool));
+    }
+
+    private static List<String> requiredParameters(Tool tool) {
+        Object required = tool.inputSchema().get("required");
+        if (!(required instanceof List<?> list)) {
+            return List.of();
+        }
+        return list.stream().map(String::valueOf).toList();
+    }
+
+    private static String normalize(String query) {
+        return query == null ? "" : query.trim().toLowerCase().replaceAll("\\s+", " ");
+    }
+
+    private static List<String> tokenize(String normalized) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SPLIT.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private record Rule(Pattern pattern, String serverId, String toolName, Function<Matcher, Map<String, Object>> parameters) {}
+
+    private record Outcome(String label, Map<String, Object> parameters) {}
+
+    private static class LabelStats {
+        private final Map<String, Integer> tokenCounts = new HashMap<>();
+        private int samples;
+        private int totalTokens;
+    }
+}
@@ -6,10 +6,14 @@ import com.gazapps.mcp.ToolResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -17,19 +21,43 @@ import java.util.regex.Pattern;
 public class MultiToolOrchestrator {
     private static final Logger logger = LoggerFactory.getLogger(MultiToolOrchestrator.class);
     private static final int MAX_ITERATIONS = 10;
+    private static final int MAX_CONCURRENT_STEPS = 8;
     
-    private final LLMClient llmClient;
-    private final MCPService mcpService;
-    private ExecutorService executorService; // Lazy-initialized
-    
-    private final Map<String, ToolResult> stepResults = new HashMap<>();
+    private final StageClients clients;
+    private final ToolCaller tools;
+    private final ServerBulkheads bulkheads;
+    private final Map<String, WinCounter> competitorWins = new ConcurrentHashMap<>();
+    private volatile Duration hedgeDelay = Duration.ZERO;
     
     public MultiToolOrchestrator(LLMClient llmClient, MCPService mcpService) {
-        this.llmClient = llmClient;
-        this.mcpService = mcpService;
+        this(StageClients.of(llmClient), mcpService);
+    }
+    
+    public MultiToolOrchestrator(StageClients clients, MCPService mcpService) {
+        this(clients, mcpService, new ServerBulkheads());
+    }
+    
+    public MultiToolOrchestrator(StageClients clients, MCPService mcpService, ServerBulkheads bulkheads) {
+        this(clients, mcpService::callToolAsync, bulkheads);
+    }
+    
+    MultiToolOrchestrator(StageClients clients, ToolCaller tools, ServerBulkheads bulkheads) {
+        this.clients = clients;
+        this.tools = tools;
+        this.bulkheads = bulkheads;
+    }
+    
+    /** The tool-call side of MCPService; tests substitute their own. */
+    @FunctionalInterface
+    interface ToolCaller {
+        CompletableFuture<ToolResult> callToolAsync(String serverId, String toolName, Map<String, Object> args);
     }
     
      public ToolResult executePlan(MultiToolPlan plan) {
+        return executePlan(plan, new TurnMetrics(), true);
+    }
+    
+    public ToolResult executePlan(MultiToolPlan plan, TurnMetrics metrics, boolean llmAggregation) {
         if (!plan.isValid()) {
             return ToolResult.error("Invalid plan: " + plan);
         }
@@ -39,16 +67,21 @@ public class MultiToolOrchestrator {
         }
         
         logger.info("Executing {} plan with {} steps", plan.getPlanType(), plan.getSteps().size());
-        stepResults.clear();
+        ExecutionContext context = new ExecutionContext(metrics);
+        
+        // Without LLM aggregation the caller folds the aggregation prompt into its final response
+        MultiToolPlan effectivePlan = llmAggregation
+            ? plan
+            : new MultiToolPlan(plan.getPlanType(), plan.getSteps(), plan.getConditionPrompt(), plan.getCondition(), null);
         
         try {
-            return switch (plan.getPlanType()) {
-                case SEQUENTIAL -> executeSequential(plan);
-                case PARALLEL -> executeParallel(plan);
-                case CONDITIONAL -> executeConditional(plan);
-                case CHAINED -> executeChained(plan);
-                case COMPETITIVE -> executeCompetitive(plan);
-                case ITERATIVE -> executeIterative(plan);
+            return switch (effectivePlan.getPlanType()) {
+                case SEQUENTIAL -> executeSequential(effectivePlan, context);
+                case PARALLEL -> executeParallel(effectivePlan, context);
+                case CONDITIONAL -> executeConditional(effectivePlan, context);
+                case CHAINED -> executeChained(effectivePlan, context);
+                case COMPETITIVE -> executeCompetitive(effectivePlan, context);
+                case ITERATIVE -> executeIterative(effectivePlan, context);
             };
         } catch (Exception e) {
             logger.error("Error executing plan: {}", e.getMessage(), e);
@@ -56,21 +89,29 @@ public class MultiToolOrchestrator {
         }
     }
     
-     private ToolResult executeSequential(MultiToolPlan plan) throws Exception {
-        List<Step> steps = plan.getSteps();
+     private ToolResult executeSequential(MultiToolPlan plan, ExecutionContext context) throws Exception {
+        ToolResult failure = runInOrder(plan.getSteps(), context);
+        if (failure != null) {
+            return failure;
+        }
         
+        return aggregateResults(new ArrayList<>(context.results.values()), plan.getAggregationPrompt(), context.metrics);
+    }
+    
+    // Returns the first failure, or null when every step succeeded
+    private ToolResult runInOrder(List<Step> steps, ExecutionContext context) {
         for (Step step : steps) {
             logger.debug("Executing step: {}", step.id());
             
-            if (!areDependenciesSatisfied(step)) {
+            if (!areDependenciesSatisfied(step, context)) {
                 return ToolResult.error("Dependencies not satisfied for step: " + step.id());
             }
             
-            Map<String, Object> resolvedParams = resolveParameters(step);
+            Map<String, Object> resolvedParams = resolveParameters(step, context);
             
-            ToolResult result = mcpService.callTool(step.serverId(), step.toolName(), resolvedParams);
+            ToolResult result = callStep(step, resolvedParams).join();
             
-            stepResults.put(step.id(), result);
+            context.results.put(step.id(), result);
             
             if (!result.success()) {
                 logger.warn("Step {} failed: {}", step.id(), result.message());
@@ -78,115 +119,287 @@ public class MultiToolOrchestrator {
             }
         }
         
-        return aggregateResults(new ArrayList<>(stepResults.values()), plan.getAggregationPrompt());
+        return null;
     }
     
-    private ToolResult executeParallel(MultiToolPlan plan) throws Exception {
-        List<Step> independentSteps = plan.getIndependentSteps();
-        List<Step> dependentSteps = plan.getSteps().stream()
+    private ToolResult executeParallel(MultiToolPlan plan, ExecutionContext context) throws Exception {
+        List<Step> steps = plan.getSteps();
+        DagRun run = new DagRun(steps, context);
+        run.start();
+        run.done.join();
+        
+        Optional<Step> cancelled = steps.stream().filter(step -> run.cancelled.contains(step.id())).findFirst();
+        if (cancelled.isPresent()) {
+            return ToolResult.error("Dependencies not satisfied for step: " + cancelled.get().id());
+        }
+        
+        Optional<ToolResult> failed = steps.stream()
             .filter(Step::hasDependencies)
-            .toList();
+            .map(step -> context.results.get(step.id()))
+            .filter(result -> !result.success())
+            .findFirst();
+        if (failed.isPresent()) {
+            return failed.get();
+        }
         
-        if (!independentSteps.isEmpty()) {
-            ExecutorService executor = getExecutorService();
-            
-            List<CompletableFuture<Void>> futures = independentSteps.stream()
-                .map(step -> CompletableFuture.runAsync(() -> {
-                    try {
-                        Map<String, Object> resolvedParams = resolveParameters(step);
-                        ToolResult result = mcpService.callTool(step.serverId(), step.toolName(), resolvedParams);
-                        synchronized (stepResults) {
-                            stepResults.put(step.id(), result);
-                        }
-                    } catch (Exception e) {
-                        logger.error("Error in parallel step {}: {}", step.id(), e.getMessage());
-                        synchronized (stepResults) {
-                            stepResults.put(step.id(), ToolResult.error("Parallel execution failed: " + e.getMessage()));
-                        }
-                    }
-                }, executor))
-                .toList();
+        List<ToolResult> results = steps.stream().map(step -> context.results.get(step.id())).toList();
+        return aggregateResults(results, plan.getAggregationPrompt(), context.metrics);
+    }
+    
+    /**
+     * Runs a plan's steps as a dependency graph: a step starts as soon as all of its
+     * dependencies have succeeded, with at most MAX_CONCURRENT_STEPS calls in flight.
+     * When a step fails, everything downstream of it is cancelled; unrelated branches
+     * keep running. Wall time follows the critical path rather than the step count.
+     */
+    private final class DagRun {
+        private final ExecutionContext context;
+        private final int total;
+        private final Map<String, Integer> waitingOn = new HashMap<>();
+        private final Map<String, List<Step>> dependents = new HashMap<>();
+        private final Deque<Step> ready = new ArrayDeque<>();
+        private final Set<String> cancelled = ConcurrentHashMap.newKeySet();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private int running;
+        private int finished;
+        
+        DagRun(List<Step> steps, ExecutionContext context) {
+            this.context = context;
+            this.total = steps.size();
+            Set<String> ids = new HashSet<>();
+            steps.forEach(step -> ids.add(step.id()));
             
-             CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            List<Step> unresolvable = new ArrayList<>();
+            for (Step step : steps) {
+                waitingOn.put(step.id(), step.dependencies().size());
+                for (String dependency : step.dependencies()) {
+                    dependents.computeIfAbsent(dependency, id -> new ArrayList<>()).add(step);
+                }
+                if (!ids.containsAll(step.dependencies())) {
+                    unresolvable.add(step);
+                } else if (!step.hasDependencies()) {
+                    ready.add(step);
+                }
+            }
+            unresolvable.forEach(this::cancel);
         }
         
-        for (Step step : dependentSteps) {
-            if (!areDependenciesSatisfied(step)) {
-                return ToolResult.error("Dependencies not satisfied for step: " + step.id());
+        void start() {
+            List<Step> launchable;
+            synchronized (this) {
+                launchable = takeReady();
             }
+            launchable.forEach(this::launch);
+        }
+        
+        private void launch(Step step) {
+            logger.debug("Starting step: {}", step.id());
+            CompletableFuture<ToolResult> call;
+            try {
+                call = callStep(step, resolveParameters(step, context));
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            call.exceptionally(e -> {
+                    logger.error("Error in parallel step {}: {}", step.id(), e.getMessage());
+                    return ToolResult.error("Parallel execution failed: " + e.getMessage());
+                })
+                .thenAccept(result -> complete(step, result).forEach(this::launch));
+        }
+        
+        // Records the result and returns the steps it unblocked; they are launched outside the lock
+        private synchronized List<Step> complete(Step step, ToolResult result) {
+            context.results.put(step.id(), result);
+            running--;
+            finished++;
             
-            Map<String, Object> resolvedParams = resolveParameters(step);
-            ToolResult result = mcpService.callTool(step.serverId(), step.toolName(), resolvedParams);
-            stepResults.put(step.id(), result);
-            
-            if (!result.success()) {
-                return result;
+            for (Step dependent : dependents.getOrDefault(step.id(), List.of())) {
+                if (!result.success()) {
+                    logger.warn("Step {} failed, cancelling {}", step.id(), dependent.id());
+                    cancel(dependent);
+                } else if (!cancelled.contains(dependent.id()) && waitingOn.merge(dependent.id(), -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+            return takeReady();
+        }
+        
+        private void cancel(Step step) {
+            if (!cancelled.add(step.id())) {
+                return;
             }
+            finished++;
+            dependents.getOrDefault(step.id(), List.of()).forEach(this::cancel);
         }
         
-        return aggregateResults(new ArrayList<>(stepResults.values()), plan.getAggregationPrompt());
+        private List<Step> takeReady() {
+            List<Step> launchable = new ArrayList<>();
+            while (running < MAX_CONCURRENT_STEPS && !ready.isEmpty()) {
+                launchable.add(ready.poll());
+                running++;
+            }
+            if (finished == total) {
+                done.complete(null);
+            }
+            return launchable;
+        }
     }
     
-    private ToolResult executeConditional(MultiToolPlan plan) throws Exception {
-        logger.warn("Conditional execution not fully implemented, falling back to sequential");
-        return executeSequential(plan);
+    // The first step decides: the remaining steps run only when the condition holds for its result
+    private ToolResult executeConditional(MultiToolPlan plan, ExecutionContext context) throws Exception {
+        List<Step> steps = plan.getSteps();
+        ToolResult failure = runInOrder(steps.subList(0, 1), context);
+        if (failure != null) {
+            return failure;
+        }
+        
+        ToolResult first = context.results.get(steps.get(0).id());
+        if (shouldContinue(plan, context, first, 0)) {
+            failure = runInOrder(steps.subList(1, steps.size()), context);
+            if (failure != null) {
+                return failure;
+            }
+        } else {
+            logger.info("Condition not met after step {}, skipping {} steps", steps.get(0).id(), steps.size() - 1);
+        }
+        
+        List<ToolResult> results = steps.stream()
+            .map(step -> context.results.get(step.id()))
+            .filter(Objects::nonNull)
+            .toList();
+        return aggregateResults(results, plan.getAggregationPrompt(), context.metrics);
     }
     
-    private ToolResult executeChained(MultiToolPlan plan) throws Exception {
+    private ToolResult executeChained(MultiToolPlan plan, ExecutionContext context) throws Exception {
         List<Step> steps = plan.getSteps();
         
         for (int i = 0; i < steps.size(); i++) {
             Step step = steps.get(i);
             logger.debug("Executing chained step {}: {}", i + 1, step.id());
             
-            Map<String, Object> resolvedParams = resolveParameters(step);
+            Map<String, Object> resolvedParams = resolveParameters(step, context);
             
-            if (i > 0 && !stepResults.isEmpty()) {
-                ToolResult previousResult = stepResults.get(steps.get(i - 1).id());
+            if (i > 0 && !context.results.isEmpty()) {
+                ToolResult previousResult = context.results.get(steps.get(i - 1).id());
                 if (previousResult != null && previousResult.success()) {
                     resolvedParams.putIfAbsent("input", previousResult.content());
                 }
             }
             
-            ToolResult result = mcpService.callTool(step.serverId(), step.toolName(), resolvedParams);
-            stepResults.put(step.id(), result);
+            ToolResult result = callStep(step, resolvedParams).join();
+            context.results.put(step.id(), result);
             
             if (!result.success()) {
                 return result;
             }
         }
         
-        return aggregateResults(new ArrayList<>(stepResults.values()), plan.getAggregationPrompt());
+        return aggregateResults(new ArrayList<>(context.results.values()), plan.getAggregationPrompt(), context.metrics);
     }
     
-     private ToolResult executeCompetitive(MultiToolPlan plan) throws Exception {
-        ExecutorService executor = getExecutorService();
+    private ToolResult executeCompetitive(MultiToolPlan plan, ExecutionContext context) throws Exception {
+        Race race = new Race(plan.getSteps(), context);
+        race.launchNext();
+        return race.winner.join();
+    }
+    
+    /**
+     * Runs the steps of a competitive plan as a race: the first successful result wins and
+     * every competitor still in flight is cancelled, down to its MCP request. With a hedge
+     * delay the competitors start one after another, and a failure starts the next at once.
+     */
+    private final class Race {
+        private final List<Step> steps;
+        private final ExecutionContext context;
+        private final CompletableFuture<ToolResult> winner = new CompletableFuture<>();
+        private final List<CompletableFuture<ToolResult>> calls = new ArrayList<>();
+        private final long startedAt = System.nanoTime();
+        private int launched;
+        private int failed;
         
-        List<CompletableFuture<ToolResult>> futures = plan.getSteps().stream()
-            .map(step -> CompletableFuture.supplyAsync(() -> {
-                try {
-                    Map<String, Object> resolvedParams = resolveParameters(step);
-                    return mcpService.callTool(step.serverId(), step.toolName(), resolvedParams);
-                } catch (Exception e) {
-                    return ToolResult.error("Competitive execution failed: " + e.getMessage());
-                }
-            }, executor))
-            .toList();
+        Race(List<Step> steps, ExecutionContext context) {
+            this.steps = steps;
+            this.context = context;
+        }
         
-        List<ToolResult> results = futures.stream()
-            .map(CompletableFuture::join)
-            .toList();
+        void launchNext() {
+            Step step;
+            synchronized (this) {
+                if (winner.isDone() || launched == steps.size()) {
+                    return;
+                }
+                step = steps.get(launched++);
+            }
+            
+            logger.debug("Starting competitor: {}", step.id());
+            // A competitor that cannot even start counts as failed, so the race still ends
+            CompletableFuture<ToolResult> call;
+            try {
+                call = callStep(step, resolveParameters(step, context));
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            synchronized (this) {
+                calls.add(call);
+            }
+            if (winner.isDone()) {
+                call.cancel(true);
+            }
+            call.whenComplete((result, error) -> finished(step, result, error));
+            
+            if (hedgeDelay.isZero()) {
+                launchNext();
+            } else {
+                CompletableFuture.delayedExecutor(hedgeDelay.toMillis(), TimeUnit.MILLISECONDS).execute(this::launchNext);
+            }
+        }
         
-        for (ToolResult result : results) {
+        private void finished(Step step, ToolResult result, Throwable error) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            // Losers cancelled after the win need no bookkeeping; any other cancellation is a failure
+            if (cause instanceof CancellationException && winner.isDone()) {
+                return;
+            }
+            if (cause != null) {
+                result = ToolResult.error("Competitive execution failed: " + cause.getMessage());
+            }
+            
             if (result.success()) {
-                return result;
+                if (winner.complete(result)) {
+                    context.results.put(step.id(), result);
+                    recordWin(step, (System.nanoTime() - startedAt) / 1_000_000);
+                    cancelLosers();
+                }
+                return;
+            }
+            
+            boolean allFailed;
+            synchronized (this) {
+                allFailed = ++failed == steps.size();
+            }
+            if (allFailed) {
+                winner.complete(ToolResult.error("All competitive executions failed"));
+            } else {
+                launchNext();
+            }
+        }
+        
+        private void cancelLosers() {
+            List<CompletableFuture<ToolResult>> running;
+            synchronized (this) {
+                running = List.copyOf(calls);
             }
+            running.forEach(call -> call.cancel(true));
         }
         
-        return ToolResult.error("All competitive executions failed");
+        private void recordWin(Step step, long latencyMillis) {
+            logger.info("Competitive step {} ({}/{}) won in {} ms", step.id(), step.serverId(), step.toolName(), latencyMillis);
+            competitorWins.computeIfAbsent(step.serverId() + ":" + step.toolName(), key -> new WinCounter())
+                .record(latencyMillis);
+        }
     }
     
-     private ToolResult executeIterative(MultiToolPlan plan) throws Exception {
+     private ToolResult executeIterative(MultiToolPlan plan, ExecutionContext context) throws Exception {
         int iteration = 0;
         ToolResult lastResult = null;
         
@@ -195,39 +408,76 @@ public class MultiToolOrchestrator {
             logger.debug("Iterative execution - iteration {}", iteration);
             
             for (Step step : plan.getSteps()) {
-                Map<String, Object> resolvedParams = resolveParameters(step);
-                lastResult = mcpService.callTool(step.serverId(), step.toolName(), resolvedParams);
-                stepResults.put(step.id() + "_iter" + iteration, lastResult);
+                Map<String, Object> resolvedParams = resolveParameters(step, context);
+                lastResult = callStep(step, resolvedParams).join();
+                context.results.put(step.id() + "_iter" + iteration, lastResult);
+                // The plain id always holds the latest iteration, for conditions and ${step.result}
+                context.results.put(step.id(), lastResult);
                 
                 if (!lastResult.success()) {
                     return lastResult;
                 }
             }
             
-            if (plan.getConditionPrompt() != null && lastResult != null) {
-                String conditionCheck = buildConditionPrompt(plan.getConditionPrompt(), lastResult);
-                String response = llmClient.send(conditionCheck);
-                
-                if (response.toLowerCase().contains("stop") || response.toLowerCase().contains("complete")) {
-                    break;
-                }
+            if (lastResult != null && !shouldContinue(plan, context, lastResult, iteration)) {
+                break;
             }
         }
         
         return lastResult != null ? lastResult : ToolResult.error("Iterative execution produced no results");
     }
     
-    private boolean areDependenciesSatisfied(Step step) {
+    /**
+     * Decides whether a conditional plan proceeds or an iterative plan runs again. The plan's
+     * condition expression is evaluated locally; the LLM is asked only when the plan has
+     * no usable expression, or it fails to evaluate, and there is a condition prompt.
+     * Without either the plan fails instead of silently taking the "stop" branch.
+     */
+    private boolean shouldContinue(MultiToolPlan plan, ExecutionContext context, ToolResult last, int iteration) throws Exception {
+        boolean hasPrompt = plan.getConditionPrompt() != null && !plan.getConditionPrompt().isBlank();
+        ConditionExpression condition = context.condition(plan);
+        if (condition != null) {
+            Map<String, Object> bindings = new HashMap<>(context.results);
+            bindings.put("last", last);
+            bindings.put("iteration", iteration);
+            try {
+                boolean result = condition.test(bindings);
+                logger.debug("Condition '{}' evaluated to {}", condition, result);
+                return result;
+            } catch (RuntimeException e) {
+                if (!hasPrompt) {
+                    throw new IllegalStateException("Condition '" + condition + "' could not be evaluated: " + e.getMessage(), e);
+                }
+                logger.warn("Condition '{}' could not be evaluated, asking the LLM: {}", condition, e.getMessage());
+            }
+        }
+        
+        if (!hasPrompt) {
+            throw new IllegalStateException("Plan has no usable condition: " + plan.getCondition());
+        }
+        String conditionCheck = buildConditionPrompt(plan.getConditionPrompt(), last);
+        context.metrics.recordLlmCall();
+        String response = clients.get(PipelineStage.CONDITION).send(conditionCheck).toLowerCase();
+        return !(response.contains("stop") || response.contains("complete"));
+    }
+    
+    // Every tool call of a plan passes its server's bulkhead
+    private CompletableFuture<ToolResult> callStep(Step step, Map<String, Object> params) {
+        return bulkheads.execute(step.serverId(),
+            () -> tools.callToolAsync(step.serverId(), step.toolName(), params));
+    }
+    
+    private boolean areDependenciesSatisfied(Step step, ExecutionContext context) {
         return step.dependencies().stream()
-            .allMatch(depId -> stepResults.containsKey(depId) && stepResults.get(depId).success());
+            .allMatch(depId -> context.results.containsKey(depId) && context.results.get(depId).success());
     }
     
-     private Map<String, Object> resolveParameters(Step step) {
+     private Map<String, Object> resolveParameters(Step step, ExecutionContext context) {
         Map<String, Object> resolved = new HashMap<>(step.parameters());
         
         for (Map.Entry<String, Object> entry : resolved.entrySet()) {
             if (entry.getValue() instanceof String paramValue) {
-                String resolvedValue = resolveVariables(paramValue);
+                String resolvedValue = resolveVariables(paramValue, context);
                 
                 // Sanitize file paths to be relative
                 if ("path".equals(entry.getKey()) && resolvedValue.startsWith("/")) {
@@ -242,7 +492,7 @@ public class MultiToolOrchestrator {
         return resolved;
     }
     
-    private String resolveVariables(String value) {
+    private String resolveVariables(String value, ExecutionContext context) {
         Pattern pattern = Pattern.compile("\\$\\{([^.]+)\\.([^}]+)\\}");
         Matcher matcher = pattern.matcher(value);
         
@@ -251,7 +501,7 @@ public class MultiToolOrchestrator {
             String stepId = matcher.group(1);
             String field = matcher.group(2);
             
-            ToolResult stepResult = stepResults.get(stepId);
+            ToolResult stepResult = context.results.get(stepId);
             if (stepResult != null && stepResult.success()) {
                 String replacement = extractField(stepResult, field);
                 matcher.appendReplacement(resolved, Matcher.quoteReplacement(replacement));
@@ -273,7 +523,7 @@ public class MultiToolOrchestrator {
         };
     }
     
-    private ToolResult aggregateResults(List<ToolResult> results, String aggregationPrompt) throws Exception {
+    private ToolResult aggregateResults(List<ToolResult> results, String aggregationPrompt, TurnMetrics metrics) throws Exception {
         if (results.isEmpty()) {
             return ToolResult.error("No results to aggregate");
         }
@@ -284,7 +534,8 @@ public class MultiToolOrchestrator {
         
         if (aggregationPrompt != null && !aggregationPrompt.trim().isEmpty()) {
             String prompt = buildAggregationPrompt(aggregationPrompt, results);
-            String aggregatedContent = llmClient.send(prompt);
+            metrics.recordLlmCall();
+            String aggregatedContent = clients.get(PipelineStage.AGGREGATION).send(prompt);
             return ToolResult.success(null, aggregatedContent);
         }
         
@@ -321,16 +572,71 @@ public class MultiToolOrchestrator {
                "\n\nShould we continue? Answer 'continue' or 'stop'.";
     }
     
-    private ExecutorService getExecutorService() {
-        if (executorService == null) {
-            executorService = Executors.newCachedThreadPool();
+    /**
+     * State of one executePlan call. Every call gets its own context, so one orchestrator
+     * can run any number of plans at once; results are concurrent for parallel steps.
+     */
+    private static final class ExecutionContext {
+        private final Map<String, ToolResult> results = new ConcurrentHashMap<>();
+        private final TurnMetrics metrics;
+        private ConditionExpression condition;
+        private boolean conditionParsed;
+        
+        ExecutionContext(TurnMetrics metrics) {
+            this.metrics = metrics;
+        }
+        
+        // Parsed once per run; an invalid expression falls back to the condition prompt
+        ConditionExpression condition(MultiToolPlan plan) {
+            if (!conditionParsed) {
+                conditionParsed = true;
+                String source = plan.getCondition();
+                if (source != null && !source.isBlank()) {
+                    try {
+                        condition = ConditionExpression.parse(source);
+                    } catch (IllegalArgumentException e) {
+                        logger.warn("Ignoring condition '{}': {}", source, e.getMessage());
+                    }
+                }
+            }
+            return condition;
         }
-        return executorService;
     }
     
-    public void close() {
-        if (executorService != null && !executorService.isShutdown()) {
-            executorService.shutdown();
+    /** Staggers the start of competitive steps by this delay; zero starts them all at once. */
+    public void setHedgeDelay(Duration hedgeDelay) {
+        this.hedgeDelay = hedgeDelay;
+    }
+    
+    /** Wins and average winning latency per competitor, keyed by serverId:toolName. */
+    public Map<String, CompetitorStats> getCompetitorStats() {
+        Map<String, CompetitorStats> stats = new HashMap<>();
+        competitorWins.forEach((competitor, counter) -> stats.put(competitor, counter.stats()));
+        return stats;
+    }
+    
+    public record CompetitorStats(long wins, double averageLatencyMillis) {}
+    
+    private static final class WinCounter {
+        private final AtomicLong wins = new AtomicLong();
+        private final AtomicLong totalLatencyMillis = new AtomicLong();
+        
+        void record(long latencyMillis) {
+            wins.incrementAndGet();
+            totalLatencyMillis.addAndGet(latencyMillis);
         }
+        
+        CompetitorStats stats() {
+            long count = wins.get();
+            return new CompetitorStats(count, count == 0 ? 0.0 : (double) totalLatencyMillis.get() / count);
+        }
+    }
+    
+    public ServerBulkheads getBulkheads() {
+        return bulkheads;
+    }
+    
+    public void close() {
+        bulkheads.close();
     }
 }
@@ -10,27 +10,35 @@ public class MultiToolPlan {
     private final PlanType planType;
     private final List<Step> steps;
     private final String conditionPrompt;
+    private final String condition;
     private final String aggregationPrompt;
     
     public MultiToolPlan() {
         this(PlanType.SEQUENTIAL, new ArrayList<>(), null, null);
     }
     
+    public MultiToolPlan(PlanType planType, List<Step> steps, String conditionPrompt, String aggregationPrompt) {
+        this(planType, steps, conditionPrompt, null, aggregationPrompt);
+    }
+    
     @JsonCreator
     public MultiToolPlan(
             @JsonProperty("planType") PlanType planType,
             @JsonProperty("steps") List<Step> steps,
             @JsonProperty("conditionPrompt") String conditionPrompt,
+            @JsonProperty("condition") String condition,
             @JsonProperty("aggregationPrompt") String aggregationPrompt) {
         this.planType = planType != null ? planType : PlanType.SEQUENTIAL;
         this.steps = steps != null ? new ArrayList<>(steps) : new ArrayList<>();
         this.conditionPrompt = conditionPrompt;
+        this.condition = condition;
         this.aggregationPrompt = aggregationPrompt;
     }
     
     public PlanType getPlanType() { return planType; }
     public List<Step> getSteps() { return new ArrayList<>(steps); }
     public String getConditionPrompt() { return conditionPrompt; }
+    public String getCondition() { return condition; }
     public String getAggregationPrompt() { return aggregationPrompt; }
     
    public boolean isValid() {
@@ -44,14 +52,28 @@ public class MultiToolPlan {
             }
         }
         
+        // An expression that does not parse is only acceptable when the LLM prompt can stand in for it
         if ((planType == PlanType.CONDITIONAL || planType == PlanType.ITERATIVE) 
-            && (conditionPrompt == null || conditionPrompt.trim().isEmpty())) {
+            && (conditionPrompt == null || conditionPrompt.trim().isEmpty())
+            && !hasParsableCondition()) {
             return false;
         }
         
         return true;
     }
     
+    private boolean hasParsableCondition() {
+        if (condition == null || condition.trim().isEmpty()) {
+            return false;
+        }
+        try {
+            ConditionExpression.parse(condition);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
       public boolean hasCircularDependencies() {
         for (Step step : steps) {
             if (hasCircularDependency(step.id(), step.dependencies(), new ArrayList<>())) {
@@ -98,7 +120,7 @@ public class MultiToolPlan {
         return "MultiToolPlan{" +
                 "planType=" + planType +
                 ", steps=" + steps.size() + " steps" +
-                ", hasCondition=" + (conditionPrompt != null) +
+                ", hasCondition=" + (conditionPrompt != null || condition != null) +
                 ", hasAggregation=" + (aggregationPrompt != null) +
                 '}';
     }
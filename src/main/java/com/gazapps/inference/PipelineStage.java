@@ -0,0 +1,9 @@
+package com.gazapps.inference;
+
+public enum PipelineStage {
+    ANALYSIS,
+    PLANNING,
+    AGGREGATION,
+    CONDITION,
+    RESPONSE
+}
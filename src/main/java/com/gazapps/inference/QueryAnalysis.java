@@ -7,18 +7,42 @@ record QueryAnalysis(
     ExecutionType execution,
     String details, 
     Map<String, Object> parameters,
-    Optional<MultiToolPlan> multiToolPlan  
+    Optional<MultiToolPlan> multiToolPlan,
+    Origin origin
 ) {
     enum ExecutionType { DIRECT_ANSWER, SINGLE_TOOL, MULTI_TOOL }
+
+    // ANSWER means details already holds the model's reply to the user; FALLBACK means the analysis could not be parsed
+    enum Origin { ANALYSIS, ANSWER, FALLBACK }
     
      public QueryAnalysis(ExecutionType execution, String details, Map<String, Object> parameters) {
         this(execution, details, parameters, Optional.empty());
     }
+
+    public QueryAnalysis(ExecutionType execution, String details, Map<String, Object> parameters, Optional<MultiToolPlan> multiToolPlan) {
+        this(execution, details, parameters, multiToolPlan, Origin.ANALYSIS);
+    }
     
     public QueryAnalysis(ExecutionType execution, String details, Map<String, Object> parameters, MultiToolPlan multiToolPlan) {
         this(execution, details, parameters, Optional.ofNullable(multiToolPlan));
     }
     
+    static QueryAnalysis answered(String answer) {
+        return new QueryAnalysis(ExecutionType.DIRECT_ANSWER, answer, null, Optional.empty(), Origin.ANSWER);
+    }
+
+    static QueryAnalysis fallback(String reason) {
+        return new QueryAnalysis(ExecutionType.DIRECT_ANSWER, reason, null, Optional.empty(), Origin.FALLBACK);
+    }
+
+    public boolean isFallback() {
+        return origin == Origin.FALLBACK;
+    }
+
+    public boolean hasAnswer() {
+        return origin == Origin.ANSWER && details != null && !details.isBlank();
+    }
+
      public boolean isMultiTool() {
         return execution == ExecutionType.MULTI_TOOL && multiToolPlan.isPresent();
     }
@@ -0,0 +1,150 @@
+package com.gazapps.inference;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.gazapps.util.Futures;
+import com.gazapps.util.Futures.CancellationLink;
+
+/**
+ * Limits how many plan steps may call one server at the same time. Each call waits for
+ * its server's permit on a virtual thread, so a large fan-out queues cheaply instead of
+ * occupying platform threads, and a slow server cannot take capacity from the others.
+ */
+public class ServerBulkheads implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ServerBulkheads.class);
+    public static final int DEFAULT_LIMIT = 4;
+
+    private final int defaultLimit;
+    private final Map<String, Integer> limits = new ConcurrentHashMap<>();
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final ExecutorService waiters = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ServerBulkheads() {
+        this(DEFAULT_LIMIT);
+    }
+
+    public ServerBulkheads(int defaultLimit) {
+        this.defaultLimit = Math.max(1, defaultLimit);
+    }
+
+    /** Sets the limit for one server; it takes effect before the server's first call. */
+    public ServerBulkheads withLimit(String serverId, int limit) {
+        limits.put(serverId, Math.max(1, limit));
+        return this;
+    }
+
+    public <T> CompletableFuture<T> execute(String serverId, Supplier<CompletableFuture<T>> call) {
+        Bulkhead bulkhead = bulkheads.computeIfAbsent(serverId,
+            id -> new Bulkhead(limits.getOrDefault(id, defaultLimit)));
+        if (bulkhead.tryAcquire()) {
+            bulkhead.recordAcquired(0);
+            return bulkhead.run(call);
+        }
+        // The caller gets a copy, so cancelling it while queued still lets the waiter hand its permit back
+        CancellationLink link = new CancellationLink();
+        return link.bind(CompletableFuture.supplyAsync(() -> bulkhead.await(serverId), waiters)
+            .thenCompose(acquired -> {
+                if (link.isCancelled()) {
+                    bulkhead.permits.release();
+                    return CompletableFuture.<T>failedFuture(new CancellationException());
+                }
+                return link.track(bulkhead.run(call));
+            })
+            .copy());
+    }
+
+    public Map<String, Stats> getStats() {
+        Map<String, Stats> stats = new ConcurrentHashMap<>();
+        bulkheads.forEach((serverId, bulkhead) -> stats.put(serverId, bulkhead.stats()));
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        waiters.shutdownNow();
+    }
+
+    public record Stats(int limit, int active, int queued, int peakQueued, long calls, long queuedCalls, long totalWaitMillis) {
+        public double averageWaitMillis() {
+            return queuedCalls == 0 ? 0.0 : (double) totalWaitMillis / queuedCalls;
+        }
+    }
+
+    private static class Bulkhead {
+        private final int limit;
+        private final Semaphore permits;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger peakQueued = new AtomicInteger();
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong queuedCalls = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+
+        Bulkhead(int limit) {
+            this.limit = limit;
+            this.permits = new Semaphore(limit, true);
+        }
+
+        // Unlike tryAcquire(), a zero timeout respects fairness and does not barge past queued steps
+        boolean tryAcquire() {
+            try {
+                return permits.tryAcquire(0, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        // Runs on a virtual thread, so blocking here parks only that thread
+        boolean await(String serverId) {
+            int waiting = queued.incrementAndGet();
+            peakQueued.accumulateAndGet(waiting, Math::max);
+            long start = System.nanoTime();
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for " + serverId, e);
+            } finally {
+                queued.decrementAndGet();
+            }
+            long waited = System.nanoTime() - start;
+            queuedCalls.incrementAndGet();
+            recordAcquired(waited);
+            logger.debug("Step for {} waited {} ms for a permit", serverId, waited / 1_000_000);
+            return true;
+        }
+
+        void recordAcquired(long waitNanos) {
+            calls.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+        }
+
+        <T> CompletableFuture<T> run(Supplier<CompletableFuture<T>> call) {
+            CompletableFuture<T> result;
+            try {
+                result = call.get();
+            } catch (RuntimeException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            return Futures.propagateCancellation(result.whenComplete((ignored, error) -> permits.release()), result);
+        }
+
+        Stats stats() {
+            return new Stats(limit, limit - permits.availablePermits(), queued.get(), peakQueued.get(),
+                calls.get(), queuedCalls.get(), totalWaitNanos.get() / 1_000_000);
+        }
+    }
+}
@@ -6,57 +6,134 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gazapps.llm.FunctionCallResponse;
+import com.gazapps.llm.FunctionDeclaration;
 import com.gazapps.llm.LLMClient;
 import com.gazapps.mcp.MCPService;
 import com.gazapps.mcp.Tool;
 import com.gazapps.mcp.ToolResult;
 
 public class SimpleInference {
+    private static final ExecutorService toolExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
     private final MCPService mcpService;
-    private final LLMClient llmClient;
+    private final StageClients clients;
     private final ObjectMapper objectMapper;
-    private String lastResult = "";
+    private volatile String lastResult = "";
     private MultiToolOrchestrator orchestrator; // Injected dependency
+    private boolean nativeFunctionCalling;
+    private boolean fusedAggregation = true;
+    private IntentRouter intentRouter;
+    private volatile TurnMetrics lastTurnMetrics = new TurnMetrics();
 
     public SimpleInference(MCPService mcpService, LLMClient llmClient) {
+        this(mcpService, StageClients.of(llmClient));
+    }
+
+    public SimpleInference(MCPService mcpService, StageClients clients) {
         this.mcpService = mcpService;
-        this.llmClient = llmClient;
+        this.clients = clients;
         this.objectMapper = new ObjectMapper();
+        this.nativeFunctionCalling = clients.get(PipelineStage.ANALYSIS).supportsFunctionCalling();
+        this.intentRouter = new IntentRouter(mcpService);
     }
 
     public String processQuery(String query) {
-        try {
-            QueryAnalysis analysis = analyzeQuery(query);
-            //System.out.println(analysis);
+        return processQuery(query, null);
+    }
 
-            String result = switch (analysis.execution()) {
-                case DIRECT_ANSWER -> generateDirectResponse(query);
-                case SINGLE_TOOL -> executeSingleTool(analysis, query);
-                case MULTI_TOOL -> executeMultiTool(analysis, query);
-            };
+    public String processQuery(String query, Consumer<String> onToken) {
+        return processQueryAsync(query, onToken).join();
+    }
 
-            if (analysis.execution() == QueryAnalysis.ExecutionType.SINGLE_TOOL) {
-                lastResult = result;
-            }
+    public CompletableFuture<String> processQueryAsync(String query) {
+        return processQueryAsync(query, null);
+    }
 
-            return result;
+    public CompletableFuture<String> processQueryAsync(String query, Consumer<String> onToken) {
+        TurnMetrics metrics = new TurnMetrics();
+        lastTurnMetrics = metrics;
+        return processQueryAsync(query, onToken, metrics);
+    }
 
-        } catch (Exception e) {
-            System.err.println("An unexpected error occurred: " + e.getMessage());
-            return "Error: " + e.getMessage();
+    public CompletableFuture<String> processQueryAsync(String query, Consumer<String> onToken, TurnMetrics metrics) {
+        return analyzeQuery(query, metrics)
+            .thenCompose(analysis -> {
+                //System.out.println(analysis);
+
+                CompletableFuture<String> result = switch (analysis.execution()) {
+                    case DIRECT_ANSWER -> analysis.hasAnswer()
+                        ? deliverAnswer(analysis.details(), onToken)
+                        : generateDirectResponse(query, onToken, metrics);
+                    case SINGLE_TOOL -> executeSingleTool(analysis, query, onToken, metrics);
+                    case MULTI_TOOL -> executeMultiTool(analysis, query, onToken, metrics);
+                };
+
+                if (analysis.execution() == QueryAnalysis.ExecutionType.SINGLE_TOOL) {
+                    return result.thenApply(response -> lastResult = response);
+                }
+                return result;
+            })
+            .exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                System.err.println("An unexpected error occurred: " + cause.getMessage());
+                return "Error: " + cause.getMessage();
+            });
+    }
+
+    public TurnMetrics getLastTurnMetrics() {
+        return lastTurnMetrics;
+    }
+
+    private CompletableFuture<QueryAnalysis> analyzeQuery(String query, TurnMetrics metrics) {
+        if (intentRouter != null) {
+            Optional<QueryAnalysis> routed = intentRouter.route(query);
+            if (routed.isPresent()) {
+                metrics.markFastPath();
+                System.out.printf("Detected response modality: %s (fast path, hit rate %.0f%%)%n",
+                    routed.get().execution(), intentRouter.getHitRate() * 100);
+                return CompletableFuture.completedFuture(routed.get());
+            }
         }
+
+        CompletableFuture<QueryAnalysis> analysis;
+        if (nativeFunctionCalling) {
+            analysis = analyzeWithFunctions(query, metrics)
+                .exceptionallyCompose(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    System.out.println("Native function calling failed, falling back to text analysis: " + cause.getMessage());
+                    return analyzeWithPrompt(query, metrics);
+                });
+        } else {
+            analysis = analyzeWithPrompt(query, metrics);
+        }
+        IntentRouter router = intentRouter;
+        return router == null ? analysis : analysis.thenApply(result -> {
+            router.learn(query, result);
+            return result;
+        });
     }
 
-    private QueryAnalysis analyzeQuery(String query) throws Exception {
-        List<Tool> availableTools = mcpService.getAllAvailableTools();
-        String toolList = formatToolsForPrompt(availableTools);
-        String prompt = PromptTemplates.getAnalysisPrompt(query, toolList, lastResult);
+    private CompletableFuture<QueryAnalysis> analyzeWithPrompt(String query, TurnMetrics metrics) {
+        String prompt;
+        try {
+            List<Tool> availableTools = mcpService.getAllAvailableTools();
+            String toolList = formatToolsForPrompt(availableTools);
+            prompt = PromptTemplates.getAnalysisPrompt(query, toolList, lastResult);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
 
-        String response = llmClient.send(prompt);
-        return parseAnalysis(response);
+        metrics.recordLlmCall();
+        return clients.get(PipelineStage.ANALYSIS).sendAsync(prompt).thenApply(this::parseAnalysis);
     }
 
     private String formatToolsForPrompt(List<Tool> availableTools) throws JsonProcessingException {
@@ -106,6 +183,86 @@ public class SimpleInference {
         return String.join(", ", paramDescriptions);
     }
 
+    private CompletableFuture<QueryAnalysis> analyzeWithFunctions(String query, TurnMetrics metrics) {
+        Map<String, Tool> toolsByFunction = new HashMap<>();
+        List<FunctionDeclaration> functions = new ArrayList<>();
+        for (Tool tool : mcpService.getAllAvailableTools()) {
+            String functionName = functionName(tool);
+            toolsByFunction.put(functionName, tool);
+            functions.add(new FunctionDeclaration(functionName, tool.description(), tool.inputSchema()));
+        }
+
+        String prompt = PromptTemplates.getFunctionCallingPrompt(query, lastResult);
+        metrics.recordLlmCall();
+        return clients.get(PipelineStage.ANALYSIS).sendWithFunctionsAsync(prompt, functions)
+            .thenApply(response -> parseFunctionCalls(response, toolsByFunction));
+    }
+
+    // Function names are limited to [a-zA-Z0-9_-]{1,64} by the providers
+    private static String functionName(Tool tool) {
+        String name = (tool.serverId() + "__" + tool.name()).replaceAll("[^a-zA-Z0-9_-]", "_");
+        return name.length() > 64 ? name.substring(0, 64) : name;
+    }
+
+    private QueryAnalysis parseFunctionCalls(FunctionCallResponse response, Map<String, Tool> toolsByFunction) {
+        List<Step> steps = new ArrayList<>();
+        if (response.hasCalls()) {
+            for (FunctionCallResponse.Call call : response.calls()) {
+                Tool tool = toolsByFunction.get(call.name());
+                if (tool == null) {
+                    System.out.println("Ignoring call to unknown function: " + call.name());
+                    continue;
+                }
+                Map<String, Object> arguments = call.arguments() != null ? new HashMap<>(call.arguments()) : new HashMap<>();
+                steps.add(new Step("step" + (steps.size() + 1), tool.serverId(), tool.name(), arguments, new ArrayList<>()));
+            }
+        }
+
+        if (steps.isEmpty()) {
+            System.out.println("Detected response modality: DIRECT_ANSWER");
+            // The model already answered; asking it again would cost a second call for the same reply
+            String text = response.text();
+            return text != null && !text.isBlank()
+                ? QueryAnalysis.answered(text)
+                : new QueryAnalysis(QueryAnalysis.ExecutionType.DIRECT_ANSWER, text, null);
+        }
+
+        if (steps.size() == 1) {
+            Step step = steps.get(0);
+            System.out.println("Detected response modality: SINGLE_TOOL");
+            return new QueryAnalysis(QueryAnalysis.ExecutionType.SINGLE_TOOL,
+                step.serverId() + ":" + step.toolName(), step.parameters());
+        }
+
+        // Repeated calls to one tool are independent lookups; mixed tools keep the order the model chose
+        boolean sameTool = steps.stream()
+            .map(step -> step.serverId() + ":" + step.toolName())
+            .distinct()
+            .count() == 1;
+        PlanType planType = sameTool ? PlanType.PARALLEL : PlanType.SEQUENTIAL;
+        MultiToolPlan plan = new MultiToolPlan(planType, steps, null, null);
+
+        System.out.println("Detected response modality: MULTI_TOOL");
+        return new QueryAnalysis(QueryAnalysis.ExecutionType.MULTI_TOOL, planType.name(), null, plan);
+    }
+
+    public IntentRouter getIntentRouter() {
+        return intentRouter;
+    }
+
+    // A null router sends every query through LLM analysis
+    public void setIntentRouter(IntentRouter intentRouter) {
+        this.intentRouter = intentRouter;
+    }
+
+    public void setFusedAggregation(boolean enabled) {
+        this.fusedAggregation = enabled;
+    }
+
+    public void setNativeFunctionCalling(boolean enabled) {
+        this.nativeFunctionCalling = enabled && clients.get(PipelineStage.ANALYSIS).supportsFunctionCalling();
+    }
+
     private QueryAnalysis parseAnalysis(String response) {
         String cleaned = response.trim();
         String[] lines = cleaned.split("\n");
@@ -121,7 +278,7 @@ public class SimpleInference {
             String[] toolParts = toolLine.split(":");
             if (toolParts.length != 2) {
                 System.out.println("Invalid tool format. Falling back to DIRECT_ANSWER.");
-                return new QueryAnalysis(QueryAnalysis.ExecutionType.DIRECT_ANSWER, "Invalid tool format: " + toolLine, null);
+                return QueryAnalysis.fallback("Invalid tool format: " + toolLine);
             }
             String serverId = toolParts[0];
             String toolName = toolParts[1];
@@ -175,37 +332,51 @@ public class SimpleInference {
         }
         
         System.out.println("Detected response modality: DIRECT_ANSWER (fallback)");
-        return new QueryAnalysis(QueryAnalysis.ExecutionType.DIRECT_ANSWER, "Could not parse", null);
+        return QueryAnalysis.fallback("Could not parse");
     }
     
-    private String generateDirectResponse(String query) throws Exception {
+    private static CompletableFuture<String> deliverAnswer(String answer, Consumer<String> onToken) {
+        if (onToken != null) {
+            onToken.accept(answer);
+        }
+        return CompletableFuture.completedFuture(answer);
+    }
+
+    private CompletableFuture<String> generateDirectResponse(String query, Consumer<String> onToken, TurnMetrics metrics) {
         String prompt = PromptTemplates.getDirectAnswerPrompt(query);
-        return llmClient.send(prompt);
+        return respond(prompt, onToken, metrics);
+    }
+    
+    private CompletableFuture<String> respond(String prompt, Consumer<String> onToken, TurnMetrics metrics) {
+        metrics.recordLlmCall();
+        LLMClient llmClient = clients.get(PipelineStage.RESPONSE);
+        return onToken != null ? llmClient.streamAsync(prompt, onToken) : llmClient.sendAsync(prompt);
     }
     
-    private String executeSingleTool(QueryAnalysis analysis, String originalQuery) throws Exception {
+    private CompletableFuture<String> executeSingleTool(QueryAnalysis analysis, String originalQuery, Consumer<String> onToken, TurnMetrics metrics) {
         String[] toolParts = analysis.details().split(":");
         if (toolParts.length != 2) {
             System.out.println("Invalid tool format in QueryAnalysis: " + analysis.details());
-            return generateDirectResponse(originalQuery);
+            return generateDirectResponse(originalQuery, onToken, metrics);
         }
         String serverId = toolParts[0];
         String toolName = toolParts[1];
         Map<String, Object> parameters = analysis.parameters() != null ? analysis.parameters() : new HashMap<>();
 
-        ToolResult result = mcpService.callTool(serverId, toolName, parameters);
-
-        if (result.success()) {
-            return generateToolResponse(originalQuery, toolName, result.content());
-        } else {
-            String fallbackPrompt = PromptTemplates.getFallbackPrompt(originalQuery);
-            return llmClient.send(fallbackPrompt);
-        }
+        return mcpService.callToolAsync(serverId, toolName, parameters)
+            .thenCompose(result -> {
+                if (result.success()) {
+                    return generateToolResponse(originalQuery, toolName, result.content(), onToken, metrics);
+                } else {
+                    String fallbackPrompt = PromptTemplates.getFallbackPrompt(originalQuery);
+                    return respond(fallbackPrompt, onToken, metrics);
+                }
+            });
     }
     
-    private String generateToolResponse(String query, String toolName, String toolResult) throws Exception {
+    private CompletableFuture<String> generateToolResponse(String query, String toolName, String toolResult, Consumer<String> onToken, TurnMetrics metrics) {
         String prompt = PromptTemplates.getToolResponsePrompt(query, toolName, toolResult);
-        return llmClient.send(prompt);
+        return respond(prompt, onToken, metrics);
     }
 
     private static final class PromptTemplates {
@@ -367,6 +538,46 @@ public class SimpleInference {
             return FALLBACK_PROMPT_TEMPLATE.formatted(query);
         }
         
+        private static final String FUSED_RESPONSE_PROMPT_TEMPLATE = """
+            Create a short, natural, helpful response for the user from these tool results:
+            
+            User asked: "%s"
+            How to combine the results: %s
+            Tool results:
+            %s
+            
+            Guidelines:
+            1. Combine the results as instructed into a single answer
+            2. Be conversational and natural
+            3. Don't mention the tool names unless relevant
+            
+            Response:
+            """;
+        
+        public static String getFusedResponsePrompt(String query, String aggregationPrompt, String toolResults) {
+            return FUSED_RESPONSE_PROMPT_TEMPLATE.formatted(query, aggregationPrompt, toolResults);
+        }
+        
+        private static final String FUNCTION_CALLING_PROMPT_TEMPLATE = """
+            Handle the following user request using the available functions.
+            
+            Query: "%s"
+            
+            Previous result: %s
+            
+            Instructions:
+            - If no function is needed, answer directly without calling any function
+            - Call every function needed to complete ALL actions in the request, in execution order
+            - A single function call cannot perform multiple distinct actions
+            - Use your knowledge to fill required parameters (coordinates, timezones, etc.)
+            - If the query refers to "that" or "it", use the previous result as context
+            - For file paths, use RELATIVE paths only (e.g., "documents/file.txt")
+            """;
+        
+        public static String getFunctionCallingPrompt(String query, String lastResult) {
+            return FUNCTION_CALLING_PROMPT_TEMPLATE.formatted(query, lastResult);
+        }
+        
         // NEW: Multi-tool planning prompt
         private static final String MULTI_TOOL_PLANNING_TEMPLATE = """
             Create a detailed execution plan for this multi-tool query:
@@ -382,7 +593,12 @@ public class SimpleInference {
             Analyze the query and return a JSON plan with:
             - planType: "SEQUENTIAL", "PARALLEL", "CHAINED", "CONDITIONAL", "COMPETITIVE", or "ITERATIVE"
             - steps: array of objects with {"id": "unique_id", "serverId": "server_id", "toolName": "tool_name", "parameters": {}, "dependencies": []}
-            - conditionPrompt: (optional) for conditional/iterative logic
+            - condition: (optional) expression evaluated locally for CONDITIONAL/ITERATIVE plans, e.g.
+              "number(step1.result) > 25" or "step1.json.status == 'done'". CONDITIONAL runs the steps after
+              the first only if it is true; ITERATIVE repeats the steps while it is true. References: a step id or
+              "last", then .result, .success, .message or a JSON path (.a.b[0]); "iteration" is the loop count.
+              Operators: == != < <= > >= contains =~ (regex) && || !; functions: number(x), length(x), lower(x)
+            - conditionPrompt: (optional) question for the LLM when the decision cannot be written as a condition
             - aggregationPrompt: (optional) for result consolidation
             
             Guidelines:
@@ -413,40 +629,57 @@ public class SimpleInference {
         this.orchestrator = orchestrator;
     }
     
-     private String executeMultiTool(QueryAnalysis analysis, String originalQuery) throws Exception {
+     private CompletableFuture<String> executeMultiTool(QueryAnalysis analysis, String originalQuery, Consumer<String> onToken, TurnMetrics metrics) {
         if (orchestrator == null) {
-            return "Multi-tool execution not available - orchestrator not configured";
+            return CompletableFuture.completedFuture("Multi-tool execution not available - orchestrator not configured");
         }
         
-        MultiToolPlan plan;
+        CompletableFuture<MultiToolPlan> planFuture;
         
         if (analysis.isMultiTool() && analysis.getMultiToolPlan().isPresent()) {
-            plan = analysis.getMultiToolPlan().get();
+            planFuture = CompletableFuture.completedFuture(analysis.getMultiToolPlan().get());
         } else {
-            plan = analyzeMultiToolQuery(originalQuery, analysis.details());
+            planFuture = analyzeMultiToolQuery(originalQuery, analysis.details(), metrics);
         }
         
-        if (!plan.isValid()) {
-            return "Could not create valid execution plan for this query.";
+        return planFuture.thenCompose(plan -> {
+            if (!plan.isValid()) {
+                return CompletableFuture.completedFuture("Could not create valid execution plan for this query.");
+            }
+            
+            boolean fused = fusedAggregation && plan.getAggregationPrompt() != null
+                && !plan.getAggregationPrompt().isBlank();
+            return CompletableFuture.supplyAsync(() -> orchestrator.executePlan(plan, metrics, !fused), toolExecutor)
+                .thenCompose(result -> {
+                    if (result.success() && fused) {
+                        String prompt = PromptTemplates.getFusedResponsePrompt(
+                            originalQuery, plan.getAggregationPrompt(), result.content());
+                        return respond(prompt, onToken, metrics);
+                    } else if (result.success()) {
+                        return generateToolResponse(originalQuery, "multi-tool plan", result.content(), onToken, metrics);
+                    } else {
+                        String fallbackPrompt = PromptTemplates.getFallbackPrompt(originalQuery);
+                        return respond(fallbackPrompt, onToken, metrics);
+                    }
+                });
+        });
+    }
+    
+    private CompletableFuture<MultiToolPlan> analyzeMultiToolQuery(String query, String analysis, TurnMetrics metrics) {
+        String prompt;
+        try {
+            List<Tool> availableTools = mcpService.getAllAvailableTools();
+            String toolList = formatToolsForPrompt(availableTools);
+            prompt = PromptTemplates.getMultiToolPlanningPrompt(query, toolList, analysis);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
         }
         
-         ToolResult result = orchestrator.executePlan(plan);
-        
-        if (result.success()) {
-            return generateToolResponse(originalQuery, "multi-tool plan", result.content());
-        } else {
-            String fallbackPrompt = PromptTemplates.getFallbackPrompt(originalQuery);
-            return llmClient.send(fallbackPrompt);
-        }
+        metrics.recordLlmCall();
+        return clients.get(PipelineStage.PLANNING).sendAsync(prompt).thenApply(this::parsePlan);
     }
     
-    private MultiToolPlan analyzeMultiToolQuery(String query, String analysis) throws Exception {
-        List<Tool> availableTools = mcpService.getAllAvailableTools();
-        String toolList = formatToolsForPrompt(availableTools);
-        String prompt = PromptTemplates.getMultiToolPlanningPrompt(query, toolList, analysis);
-        
-        String response = llmClient.send(prompt);
-        
+    private MultiToolPlan parsePlan(String response) {
         try {
         	response = response.trim();
              if (response.startsWith("```json")) {
@@ -0,0 +1,47 @@
+package com.gazapps.inference;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.gazapps.llm.LLMClient;
+
+public class StageClients {
+    private final LLMClient defaultClient;
+    private final Map<PipelineStage, LLMClient> clients = new EnumMap<>(PipelineStage.class);
+
+    public StageClients(LLMClient defaultClient) {
+        if (defaultClient == null) {
+            throw new IllegalArgumentException("A default LLM client is required");
+        }
+        this.defaultClient = defaultClient;
+    }
+
+    public static StageClients of(LLMClient client) {
+        return new StageClients(client);
+    }
+
+    public StageClients with(PipelineStage stage, LLMClient client) {
+        clients.put(stage, client);
+        return this;
+    }
+
+    public LLMClient get(PipelineStage stage) {
+        return clients.getOrDefault(stage, defaultClient);
+    }
+
+    public LLMClient getDefault() {
+        return defaultClient;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder();
+        for (PipelineStage stage : PipelineStage.values()) {
+            if (!description.isEmpty()) {
+                description.append(", ");
+            }
+            description.append(stage.name().toLowerCase()).append('=').append(get(stage).getProviderName());
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,35 @@
+package com.gazapps.inference;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TurnMetrics {
+    private final AtomicInteger llmCalls = new AtomicInteger();
+    private final long startedAt = System.nanoTime();
+    private volatile boolean fastPath;
+
+    public void recordLlmCall() {
+        llmCalls.incrementAndGet();
+    }
+
+    public void markFastPath() {
+        fastPath = true;
+    }
+
+    public boolean isFastPath() {
+        return fastPath;
+    }
+
+    public int getLlmCalls() {
+        return llmCalls.get();
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startedAt) / 1_000_000;
+    }
+
+    @Override
+    public String toString() {
+        return "%d LLM call%s, %d ms%s".formatted(getLlmCalls(), getLlmCalls() == 1 ? "" : "s", getElapsedMillis(),
+            fastPath ? ", fast path" : "");
+    }
+}
@@ -4,7 +4,16 @@ import java.io.IOException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -26,34 +35,134 @@ public abstract class BaseLLMClient implements LLMClient {
 
     @Override
     public String send(String prompt) throws RuntimeException {
+        return await(sendAsync(prompt));
+    }
+
+    @Override
+    public String stream(String prompt, Consumer<String> onToken) throws RuntimeException {
+        return await(streamAsync(prompt, onToken));
+    }
+
+    @Override
+    public CompletableFuture<String> sendAsync(String prompt) {
+        return exchange(prompt, () -> buildRequest(prompt), body -> extractAnswer(body).trim());
+    }
+
+    @Override
+    public boolean supportsFunctionCalling() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<FunctionCallResponse> sendWithFunctionsAsync(String prompt, List<FunctionDeclaration> functions) {
+        return exchange(prompt, () -> buildFunctionRequest(prompt, functions), this::extractFunctionResponse);
+    }
+
+    private <T> CompletableFuture<T> exchange(String prompt, Callable<HttpRequest> requestBuilder, ResponseParser<T> parser) {
         if (prompt == null || prompt.isBlank()) {
-            throw new RuntimeException("Prompt cannot be null or empty");
+            return CompletableFuture.failedFuture(new RuntimeException("Prompt cannot be null or empty"));
         }
 
         try {
-            var request = buildRequest(prompt);
-            var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() != 200) {
-                throw new RuntimeException(
-                    "API error: status=%d, body=%s".formatted(response.statusCode(), response.body()));
-            }
-            return extractAnswer(response.body()).trim();
-        } catch (IOException e) {
-            throw new RuntimeException("Network error while sending request for prompt: %s".formatted(prompt), e);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt(); 
-            throw new RuntimeException("Request interrupted for prompt: %s".formatted(prompt), e);
-        } catch (IllegalStateException e) {
-            throw new RuntimeException("Invalid response format for prompt: %s".formatted(prompt), e);
+            var request = requestBuilder.call();
+            var exchange = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+            return cancellable(exchange, exchange
+                .thenApply(response -> {
+                    if (response.statusCode() == 429) {
+                        throw RateLimitException.fromResponse(response.headers(), response.body());
+                    }
+                    if (response.statusCode() != 200) {
+                        throw new RuntimeException(
+                            "API error: status=%d, body=%s".formatted(response.statusCode(), response.body()));
+                    }
+                    try {
+                        return parser.parse(response.body());
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                })
+                .exceptionallyCompose(e -> CompletableFuture.<T>failedFuture(mapException(e, prompt))));
         } catch (Exception e) {
-            throw new RuntimeException("Unexpected error for prompt: %s".formatted(prompt), e);
+            return CompletableFuture.failedFuture(mapException(e, prompt));
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> streamAsync(String prompt, Consumer<String> onToken) {
+        if (prompt == null || prompt.isBlank()) {
+            return CompletableFuture.failedFuture(new RuntimeException("Prompt cannot be null or empty"));
+        }
+
+        try {
+            var request = buildStreamRequest(prompt);
+            var exchange = httpClient.sendAsync(request, responseInfo -> responseInfo.statusCode() == 200
+                    ? HttpResponse.BodySubscribers.fromLineSubscriber(
+                        new SseSubscriber(onToken), SseSubscriber::answer, StandardCharsets.UTF_8, null)
+                    : HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8));
+            return cancellable(exchange, exchange
+                .thenApply(response -> {
+                    if (response.statusCode() == 429) {
+                        throw RateLimitException.fromResponse(response.headers(), response.body());
+                    }
+                    if (response.statusCode() != 200) {
+                        throw new RuntimeException(
+                            "API error: status=%d, body=%s".formatted(response.statusCode(), response.body()));
+                    }
+                    return response.body();
+                })
+                .exceptionallyCompose(e -> CompletableFuture.failedFuture(mapException(e, prompt))));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(mapException(e, prompt));
+        }
+    }
+
+    private static <T> CompletableFuture<T> cancellable(CompletableFuture<?> exchange, CompletableFuture<T> result) {
+        result.whenComplete((answer, error) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private String await(CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
         }
     }
 
+    private RuntimeException mapException(Throwable e, String prompt) {
+        while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
 
+        if (e instanceof CancellationException cancelled) {
+            return cancelled;
+        }
+        if (e instanceof RateLimitException limited) {
+            return limited;
+        }
+        if (e instanceof IOException) {
+            return new RuntimeException("Network error while sending request for prompt: %s".formatted(prompt), e);
+        }
+        if (e instanceof InterruptedException) {
+            Thread.currentThread().interrupt(); 
+            return new RuntimeException("Request interrupted for prompt: %s".formatted(prompt), e);
+        }
+        if (e instanceof IllegalStateException) {
+            return new RuntimeException("Invalid response format for prompt: %s".formatted(prompt), e);
+        }
+        return new RuntimeException("Unexpected error for prompt: %s".formatted(prompt), e);
+    }
 
     protected abstract HttpRequest buildRequest(String prompt) throws Exception;
     protected abstract String extractAnswer(String jsonResponse) throws Exception;
+    protected abstract HttpRequest buildStreamRequest(String prompt) throws Exception;
+    protected abstract String extractStreamToken(String jsonChunk) throws Exception;
+    protected abstract HttpRequest buildFunctionRequest(String prompt, List<FunctionDeclaration> functions) throws Exception;
+    protected abstract FunctionCallResponse extractFunctionResponse(String jsonResponse) throws Exception;
 
     @Override
     public boolean isHealthy() {
@@ -64,4 +173,68 @@ public abstract class BaseLLMClient implements LLMClient {
             return false;
         }
     }
+
+    private interface ResponseParser<T> {
+        T parse(String body) throws Exception;
+    }
+
+    private class SseSubscriber implements Flow.Subscriber<String> {
+        private final Consumer<String> onToken;
+        private final StringBuilder answer = new StringBuilder();
+        private boolean done;
+        private Exception error;
+
+        SseSubscriber(Consumer<String> onToken) {
+            this.onToken = onToken;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (done || !line.startsWith("data:")) {
+                return;
+            }
+            String data = line.substring("data:".length()).trim();
+            if (data.equals("[DONE]")) {
+                done = true;
+                return;
+            }
+            if (data.isEmpty()) {
+                return;
+            }
+
+            try {
+                String token = extractStreamToken(data);
+                if (answer.isEmpty() && token != null) {
+                    token = token.stripLeading();
+                }
+                if (token != null && !token.isEmpty()) {
+                    answer.append(token);
+                    onToken.accept(token);
+                }
+            } catch (Exception e) {
+                error = e;
+                done = true;
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        String answer() {
+            if (error != null) {
+                throw new CompletionException(error);
+            }
+            return answer.toString().trim();
+        }
+    }
 }
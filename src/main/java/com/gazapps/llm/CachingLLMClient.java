@@ -0,0 +1,225 @@
+package com.gazapps.llm;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class CachingLLMClient implements LLMClient, AutoCloseable {
+    private final LLMClient delegate;
+    private final long maxBytes;
+    private final long ttlMillis;
+    private final MappedCacheStore diskStore;
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long currentBytes;
+
+    public CachingLLMClient(LLMClient delegate, long maxBytes, Duration ttl) {
+        this(delegate, maxBytes, ttl, null);
+    }
+
+    public CachingLLMClient(LLMClient delegate, long maxBytes, Duration ttl, Path diskFile) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate client is required");
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.delegate = delegate;
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttl.toMillis();
+
+        MappedCacheStore store = null;
+        if (diskFile != null) {
+            try {
+                store = new MappedCacheStore(diskFile, maxBytes * 2);
+                long now = System.currentTimeMillis();
+                store.load().forEach((key, entry) -> {
+                    if (entry.expiresAt() > now) {
+                        putInMemory(key, entry);
+                    }
+                });
+            } catch (IOException e) {
+                System.out.println("⚠️ LLM disk cache unavailable: " + e.getMessage());
+                store = null;
+            }
+        }
+        this.diskStore = store;
+    }
+
+    @Override
+    public String send(String prompt) throws Exception {
+        String key = keyFor(prompt);
+        String cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        String answer = delegate.send(prompt);
+        store(key, answer);
+        return answer;
+    }
+
+    @Override
+    public String stream(String prompt, Consumer<String> onToken) throws Exception {
+        String key = keyFor(prompt);
+        String cached = lookup(key);
+        if (cached != null) {
+            onToken.accept(cached);
+            return cached;
+        }
+        String answer = delegate.stream(prompt, onToken);
+        store(key, answer);
+        return answer;
+    }
+
+    @Override
+    public CompletableFuture<String> sendAsync(String prompt) {
+        String key = keyFor(prompt);
+        String cached = lookup(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return delegate.sendAsync(prompt).thenApply(answer -> {
+            store(key, answer);
+            return answer;
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> streamAsync(String prompt, Consumer<String> onToken) {
+        String key = keyFor(prompt);
+        String cached = lookup(key);
+        if (cached != null) {
+            onToken.accept(cached);
+            return CompletableFuture.completedFuture(cached);
+        }
+        return delegate.streamAsync(prompt, onToken).thenApply(answer -> {
+            store(key, answer);
+            return answer;
+        });
+    }
+
+    @Override
+    public boolean supportsFunctionCalling() {
+        return delegate.supportsFunctionCalling();
+    }
+
+    @Override
+    public CompletableFuture<FunctionCallResponse> sendWithFunctionsAsync(String prompt, List<FunctionDeclaration> functions) {
+        return delegate.sendWithFunctionsAsync(prompt, functions);
+    }
+
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName();
+    }
+
+    @Override
+    public boolean isHealthy() {
+        return delegate.isHealthy();
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+
+    public synchronized long getSizeBytes() { return currentBytes; }
+    public synchronized int getEntryCount() { return entries.size(); }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+        if (diskStore != null) {
+            diskStore.rewrite(Map.of());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (diskStore != null) {
+            diskStore.close();
+        }
+    }
+
+    private String lookup(String key) {
+        synchronized (this) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null && entry.expiresAt() > System.currentTimeMillis()) {
+                hits.incrementAndGet();
+                return entry.value();
+            }
+            if (entry != null) {
+                remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    private synchronized void store(String key, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        CacheEntry entry = new CacheEntry(value, System.currentTimeMillis() + ttlMillis);
+        if (entry.bytes() > maxBytes) {
+            return;
+        }
+        putInMemory(key, entry);
+
+        if (diskStore != null && !diskStore.append(key, entry)) {
+            diskStore.rewrite(entries);
+        }
+    }
+
+    private void putInMemory(String key, CacheEntry entry) {
+        remove(key);
+        entries.put(key, entry);
+        currentBytes += entry.bytes();
+
+        Iterator<CacheEntry> eldest = entries.values().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().bytes();
+            eldest.remove();
+        }
+    }
+
+    private void remove(String key) {
+        CacheEntry previous = entries.remove(key);
+        if (previous != null) {
+            currentBytes -= previous.bytes();
+        }
+    }
+
+    private String keyFor(String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(delegate.getProviderName().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(prompt).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    record CacheEntry(String value, long expiresAt) {
+        int bytes() {
+            return value.length() * Character.BYTES;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.gazapps.llm;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import com.gazapps.util.SingleFlight;
+
+public class CoalescingLLMClient implements LLMClient {
+    private final LLMClient delegate;
+    private final SingleFlight<String, String> inFlight = new SingleFlight<>();
+
+    public CoalescingLLMClient(LLMClient delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate client is required");
+        }
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String send(String prompt) throws Exception {
+        return inFlight.execute(prompt, () -> delegate.send(prompt));
+    }
+
+    @Override
+    public CompletableFuture<String> sendAsync(String prompt) {
+        return inFlight.executeAsync(prompt, () -> delegate.sendAsync(prompt));
+    }
+
+    @Override
+    public String stream(String prompt, Consumer<String> onToken) throws Exception {
+        return delegate.stream(prompt, onToken);
+    }
+
+    @Override
+    public CompletableFuture<String> streamAsync(String prompt, Consumer<String> onToken) {
+        return delegate.streamAsync(prompt, onToken);
+    }
+
+    @Override
+    public boolean supportsFunctionCalling() {
+        return delegate.supportsFunctionCalling();
+    }
+
+    @Override
+    public CompletableFuture<FunctionCallResponse> sendWithFunctionsAsync(String prompt, List<FunctionDeclaration> functions) {
+        return delegate.sendWithFunctionsAsync(prompt, functions);
+    }
+
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName();
+    }
+
+    @Override
+    public boolean isHealthy() {
+        return delegate.isHealthy();
+    }
+
+    public long getCoalescedCount() {
+        return inFlight.getCoalescedCount();
+    }
+}
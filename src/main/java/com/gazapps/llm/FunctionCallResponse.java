@@ -0,0 +1,15 @@
+package com.gazapps.llm;
+
+import java.util.List;
+import java.util.Map;
+
+public record FunctionCallResponse(
+    String text,
+    List<Call> calls
+) {
+    public record Call(String name, Map<String, Object> arguments) {}
+
+    public boolean hasCalls() {
+        return calls != null && !calls.isEmpty();
+    }
+}
@@ -0,0 +1,9 @@
+package com.gazapps.llm;
+
+import java.util.Map;
+
+public record FunctionDeclaration(
+    String name,
+    String description,
+    Map<String, Object> parameters
+) {}
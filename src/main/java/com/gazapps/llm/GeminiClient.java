@@ -2,28 +2,52 @@ package com.gazapps.llm;
 
 import java.net.URI;
 import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 public class GeminiClient extends BaseLLMClient {
     private static final String BASE_URL = "https://generativelanguage.googleapis.com/v1beta/models/";
+    private static final Set<String> SCHEMA_KEYS = Set.of(
+        "type", "description", "properties", "required", "items", "enum", "format", "nullable");
     private final String model;
     private final String endpointUrl;
+    private final String streamEndpointUrl;
 
     public GeminiClient(String apiKey, String model) {
+        this(apiKey, model, BASE_URL);
+    }
+
+    public GeminiClient(String apiKey, String model, String baseUrl) {
         super(apiKey);
         this.model = model != null ? model : "gemini-1.5-flash";
-        this.endpointUrl = "%s%s:generateContent?key=%s".formatted(BASE_URL, this.model, apiKey);
+        String base = baseUrl != null ? baseUrl : BASE_URL;
+        this.endpointUrl = "%s%s:generateContent?key=%s".formatted(base, this.model, apiKey);
+        this.streamEndpointUrl = "%s%s:streamGenerateContent?alt=sse&key=%s".formatted(base, this.model, apiKey);
     }
 
     @Override
     protected HttpRequest buildRequest(String prompt) throws Exception {
+        return buildRequest(prompt, endpointUrl);
+    }
+
+    @Override
+    protected HttpRequest buildStreamRequest(String prompt) throws Exception {
+        return buildRequest(prompt, streamEndpointUrl);
+    }
+
+    private HttpRequest buildRequest(String prompt, String url) throws Exception {
         var jsonBody = objectMapper.writeValueAsString(
             new GeminiRequest(
                 List.of(new GeminiRequest.Content(List.of(new GeminiRequest.Part(prompt)))),
                 new GeminiRequest.GenerationConfig(0.1, 1000)
             )
         );
-        return HttpRequest.newBuilder(URI.create(endpointUrl))
+        return HttpRequest.newBuilder(URI.create(url))
             .header("Content-Type", "application/json")
             .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
             .build();
@@ -42,6 +66,98 @@ public class GeminiClient extends BaseLLMClient {
         }
         return parts.get(0).text();
     }
+
+    @Override
+    protected HttpRequest buildFunctionRequest(String prompt, List<FunctionDeclaration> functions) throws Exception {
+        var declarations = functions.stream()
+            .map(function -> new GeminiToolRequest.FunctionDeclaration(
+                function.name(), function.description(), parametersOf(function)))
+            .toList();
+        var jsonBody = objectMapper.writeValueAsString(
+            new GeminiToolRequest(
+                List.of(new GeminiRequest.Content(List.of(new GeminiRequest.Part(prompt)))),
+                List.of(new GeminiToolRequest.Tool(declarations)),
+                new GeminiRequest.GenerationConfig(0.1, 1000)
+            )
+        );
+        return HttpRequest.newBuilder(URI.create(endpointUrl))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
+            .build();
+    }
+
+    @Override
+    protected FunctionCallResponse extractFunctionResponse(String jsonResponse) throws Exception {
+        var response = objectMapper.readValue(jsonResponse, GeminiToolResponse.class);
+        var candidates = response.candidates();
+        if (candidates == null || candidates.isEmpty() || candidates.get(0).content() == null) {
+            throw new IllegalStateException("No candidates in response");
+        }
+
+        StringBuilder text = new StringBuilder();
+        List<FunctionCallResponse.Call> calls = new ArrayList<>();
+        var parts = candidates.get(0).content().parts();
+        if (parts != null) {
+            for (var part : parts) {
+                if (part.functionCall() != null) {
+                    var args = part.functionCall().args();
+                    calls.add(new FunctionCallResponse.Call(part.functionCall().name(), args != null ? args : Map.of()));
+                } else if (part.text() != null) {
+                    text.append(part.text());
+                }
+            }
+        }
+        return new FunctionCallResponse(text.toString(), calls);
+    }
+
+    private static Map<String, Object> parametersOf(FunctionDeclaration function) {
+        if (function.parameters() == null
+                || !(function.parameters().get("properties") instanceof Map<?, ?> properties)
+                || properties.isEmpty()) {
+            return null;
+        }
+        return sanitizeSchema(function.parameters());
+    }
+
+    // Gemini accepts an OpenAPI subset and rejects keys such as additionalProperties or $schema
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> sanitizeSchema(Map<String, Object> schema) {
+        Map<String, Object> sanitized = new HashMap<>();
+        for (Map.Entry<String, Object> entry : schema.entrySet()) {
+            if (!SCHEMA_KEYS.contains(entry.getKey())) {
+                continue;
+            }
+            Object value = entry.getValue();
+            if (entry.getKey().equals("properties") && value instanceof Map<?, ?> properties) {
+                Map<String, Object> sanitizedProperties = new HashMap<>();
+                properties.forEach((name, property) -> {
+                    if (property instanceof Map<?, ?> propertySchema) {
+                        sanitizedProperties.put((String) name, sanitizeSchema((Map<String, Object>) propertySchema));
+                    }
+                });
+                value = sanitizedProperties;
+            } else if (entry.getKey().equals("items") && value instanceof Map<?, ?> items) {
+                value = sanitizeSchema((Map<String, Object>) items);
+            }
+            sanitized.put(entry.getKey(), value);
+        }
+        return sanitized;
+    }
+
+    @Override
+    protected String extractStreamToken(String jsonChunk) throws Exception {
+        var response = objectMapper.readValue(jsonChunk, GeminiResponse.class);
+        var candidates = response.candidates();
+        if (candidates == null || candidates.isEmpty() || candidates.get(0).content() == null) {
+            return "";
+        }
+        var parts = candidates.get(0).content().parts();
+        if (parts == null || parts.isEmpty()) {
+            return "";
+        }
+        return parts.get(0).text();
+    }
+
     @Override
     public String getProviderName() {
         return "Google Gemini (%s)".formatted(model);
@@ -61,4 +177,21 @@ record GeminiResponse(List<Candidate> candidates) {
     record Candidate(Content content) {}
     record Content(String role, List<Part> parts) {} 
     record Part(String text) {}
+}
+
+record GeminiToolRequest(
+    List<GeminiRequest.Content> contents,
+    List<Tool> tools,
+    GeminiRequest.GenerationConfig generationConfig
+) {
+    record Tool(List<FunctionDeclaration> functionDeclarations) {}
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record FunctionDeclaration(String name, String description, Map<String, Object> parameters) {}
+}
+
+record GeminiToolResponse(List<Candidate> candidates) {
+    record Candidate(Content content) {}
+    record Content(String role, List<Part> parts) {}
+    record Part(String text, FunctionCall functionCall) {}
+    record FunctionCall(String name, Map<String, Object> args) {}
 }
\ No newline at end of file
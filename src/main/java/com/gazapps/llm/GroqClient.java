@@ -2,28 +2,49 @@ package com.gazapps.llm;
 
 import java.net.URI;
 import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
 
 public class GroqClient extends BaseLLMClient {
     private static final String GROQ_URL = "https://api.groq.com/openai/v1/chat/completions";
     private final String model;
+    private final String endpointUrl;
 
     public GroqClient(String apiKey, String model) {
+        this(apiKey, model, GROQ_URL);
+    }
+
+    public GroqClient(String apiKey, String model, String endpointUrl) {
         super(apiKey);
         this.model = model != null ? model : "llama-3.3-70b-versatile";
+        this.endpointUrl = endpointUrl != null ? endpointUrl : GROQ_URL;
     }
 
     @Override
     protected HttpRequest buildRequest(String prompt) throws Exception {
+        return buildRequest(prompt, false);
+    }
+
+    @Override
+    protected HttpRequest buildStreamRequest(String prompt) throws Exception {
+        return buildRequest(prompt, true);
+    }
+
+    private HttpRequest buildRequest(String prompt, boolean stream) throws Exception {
         var jsonBody = objectMapper.writeValueAsString(
             new GroqRequest(
                 model,
                 List.of(new GroqRequest.Message("user", prompt)),
                 1000,
-                0.1
+                0.1,
+                stream
             )
         );
-        return HttpRequest.newBuilder(URI.create(GROQ_URL))
+        return HttpRequest.newBuilder(URI.create(endpointUrl))
             .header("Content-Type", "application/json")
             .header("Authorization", "Bearer %s".formatted(apiKey)) 
             .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
@@ -40,6 +61,69 @@ public class GroqClient extends BaseLLMClient {
         return choices.get(0).message().content();
     }
 
+    @Override
+    protected HttpRequest buildFunctionRequest(String prompt, List<FunctionDeclaration> functions) throws Exception {
+        var jsonBody = objectMapper.writeValueAsString(
+            new GroqToolRequest(
+                model,
+                List.of(new GroqRequest.Message("user", prompt)),
+                functions.stream()
+                    .map(function -> new GroqToolRequest.Tool("function",
+                        new GroqToolRequest.Function(function.name(), function.description(), parametersOf(function))))
+                    .toList(),
+                "auto",
+                1000,
+                0.1
+            )
+        );
+        return HttpRequest.newBuilder(URI.create(endpointUrl))
+            .header("Content-Type", "application/json")
+            .header("Authorization", "Bearer %s".formatted(apiKey)) 
+            .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
+            .build();
+    }
+
+    @Override
+    protected FunctionCallResponse extractFunctionResponse(String jsonResponse) throws Exception {
+        var response = objectMapper.readValue(jsonResponse, GroqToolResponse.class);
+        var choices = response.choices();
+        if (choices == null || choices.isEmpty() || choices.get(0).message() == null) {
+            throw new IllegalStateException("No choices in response");
+        }
+        var message = choices.get(0).message();
+        List<FunctionCallResponse.Call> calls = new ArrayList<>();
+        if (message.tool_calls() != null) {
+            for (var toolCall : message.tool_calls()) {
+                String arguments = toolCall.function().arguments();
+                Map<String, Object> parsed = arguments == null || arguments.isBlank()
+                    ? Map.of()
+                    : objectMapper.readValue(arguments, new TypeReference<Map<String, Object>>() {});
+                calls.add(new FunctionCallResponse.Call(toolCall.function().name(), parsed));
+            }
+        }
+        return new FunctionCallResponse(message.content(), calls);
+    }
+
+    private static Map<String, Object> parametersOf(FunctionDeclaration function) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("type", "object");
+        parameters.put("properties", Map.of());
+        if (function.parameters() != null) {
+            parameters.putAll(function.parameters());
+        }
+        return parameters;
+    }
+
+    @Override
+    protected String extractStreamToken(String jsonChunk) throws Exception {
+        var chunk = objectMapper.readValue(jsonChunk, GroqStreamChunk.class);
+        var choices = chunk.choices();
+        if (choices == null || choices.isEmpty() || choices.get(0).delta() == null) {
+            return "";
+        }
+        return choices.get(0).delta().content();
+    }
+
     @Override
     public String getProviderName() {
         return "Groq (%s)".formatted(model);
@@ -50,7 +134,8 @@ record GroqRequest(
     String model,
     List<Message> messages,
     int max_tokens,
-    double temperature
+    double temperature,
+    boolean stream
 ) {
     record Message(String role, String content) {}
 }
@@ -58,4 +143,28 @@ record GroqRequest(
 record GroqResponse(List<Choice> choices) {
     record Choice(Message message) {}
     record Message(String content) {}
+}
+
+record GroqStreamChunk(List<Choice> choices) {
+    record Choice(Delta delta) {}
+    record Delta(String content) {}
+}
+
+record GroqToolRequest(
+    String model,
+    List<GroqRequest.Message> messages,
+    List<Tool> tools,
+    String tool_choice,
+    int max_tokens,
+    double temperature
+) {
+    record Tool(String type, Function function) {}
+    record Function(String name, String description, Map<String, Object> parameters) {}
+}
+
+record GroqToolResponse(List<Choice> choices) {
+    record Choice(Message message) {}
+    record Message(String content, List<ToolCall> tool_calls) {}
+    record ToolCall(String id, Function function) {}
+    record Function(String name, String arguments) {}
 }
\ No newline at end of file
@@ -1,7 +1,51 @@
 package com.gazapps.llm;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
 public interface LLMClient {
     String send(String prompt) throws Exception;
     String getProviderName();
     boolean isHealthy();
-}
\ No newline at end of file
+
+    default String stream(String prompt, Consumer<String> onToken) throws Exception {
+        String answer = send(prompt);
+        onToken.accept(answer);
+        return answer;
+    }
+
+    default CompletableFuture<String> sendAsync(String prompt) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return send(prompt);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    default CompletableFuture<String> streamAsync(String prompt, Consumer<String> onToken) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return stream(prompt, onToken);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    default boolean supportsFunctionCalling() {
+        return false;
+    }
+
+    default CompletableFuture<FunctionCallResponse> sendWithFunctionsAsync(String prompt, List<FunctionDeclaration> functions) {
+        return CompletableFuture.failedFuture(
+            new UnsupportedOperationException("%s does not support function calling".formatted(getProviderName())));
+    }
+}
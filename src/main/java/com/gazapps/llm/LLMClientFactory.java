@@ -1,14 +1,79 @@
 package com.gazapps.llm;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
 public class LLMClientFactory {
+    private static final long DEFAULT_CACHE_BYTES = 8 * 1024 * 1024;
+    private static final Duration DEFAULT_CACHE_TTL = Duration.ofMinutes(30);
+    private static final int GROQ_REQUESTS_PER_MINUTE = 30;
+    private static final int GROQ_TOKENS_PER_MINUTE = 12_000;
+    private static final int GEMINI_REQUESTS_PER_MINUTE = 15;
+    private static final int GEMINI_TOKENS_PER_MINUTE = 1_000_000;
+
+    public static final String GROQ_DEFAULT_MODEL = "llama-3.3-70b-versatile";
+    public static final String GROQ_FAST_MODEL = "llama-3.1-8b-instant";
+    public static final String GEMINI_DEFAULT_MODEL = "gemini-1.5-flash";
+    public static final String GEMINI_FAST_MODEL = "gemini-1.5-flash-8b";
 
     public static LLMClient createGroqClient(String apiKey) {
-        return new GroqClient(apiKey, "llama-3.3-70b-versatile");
+        return createGroqClient(apiKey, GROQ_DEFAULT_MODEL);
+    }
+
+    public static LLMClient createGroqClient(String apiKey, String model) {
+        return new GroqClient(apiKey, model);
     }
 
     public static LLMClient createGeminiClient(String apiKey) {
-        return new GeminiClient(apiKey, "gemini-1.5-flash");
+        return createGeminiClient(apiKey, GEMINI_DEFAULT_MODEL);
     }
 
- 
-}
\ No newline at end of file
+    public static LLMClient createGeminiClient(String apiKey, String model) {
+        return new GeminiClient(apiKey, model);
+    }
+
+    public static RateLimitedLLMClient createGroqPool(List<String> apiKeys) {
+        return createGroqPool(apiKeys, GROQ_DEFAULT_MODEL);
+    }
+
+    public static RateLimitedLLMClient createGroqPool(List<String> apiKeys, String model) {
+        return new RateLimitedLLMClient(
+            apiKeys.stream().map(key -> createGroqClient(key, model)).toList(),
+            GROQ_REQUESTS_PER_MINUTE, GROQ_TOKENS_PER_MINUTE);
+    }
+
+    public static RateLimitedLLMClient createGeminiPool(List<String> apiKeys) {
+        return createGeminiPool(apiKeys, GEMINI_DEFAULT_MODEL);
+    }
+
+    public static RateLimitedLLMClient createGeminiPool(List<String> apiKeys, String model) {
+        return new RateLimitedLLMClient(
+            apiKeys.stream().map(key -> createGeminiClient(key, model)).toList(),
+            GEMINI_REQUESTS_PER_MINUTE, GEMINI_TOKENS_PER_MINUTE);
+    }
+
+    public static RateLimitedLLMClient withRateLimit(List<LLMClient> keyClients, int requestsPerMinute, int tokensPerMinute) {
+        return new RateLimitedLLMClient(keyClients, requestsPerMinute, tokensPerMinute);
+    }
+
+    public static RoutingLLMClient createRouter(List<LLMClient> backends, boolean hedging) {
+        return new RoutingLLMClient(backends, hedging);
+    }
+
+    public static LLMClient withCoalescing(LLMClient client) {
+        return new CoalescingLLMClient(client);
+    }
+
+    public static CachingLLMClient withCache(LLMClient client) {
+        return new CachingLLMClient(client, DEFAULT_CACHE_BYTES, DEFAULT_CACHE_TTL);
+    }
+
+    public static CachingLLMClient withCache(LLMClient client, Path diskFile) {
+        return new CachingLLMClient(client, DEFAULT_CACHE_BYTES, DEFAULT_CACHE_TTL, diskFile);
+    }
+
+    public static CachingLLMClient withCache(LLMClient client, long maxBytes, Duration ttl, Path diskFile) {
+        return new CachingLLMClient(client, maxBytes, ttl, diskFile);
+    }
+}
@@ -0,0 +1,130 @@
+package com.gazapps.llm;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.gazapps.llm.CachingLLMClient.CacheEntry;
+
+class MappedCacheStore {
+    private static final int HEADER_BYTES = Long.BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    MappedCacheStore(Path file, long capacityBytes) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        int capacity = (int) Math.min(capacityBytes + HEADER_BYTES, Integer.MAX_VALUE);
+        this.channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+
+        long position = buffer.getLong(0);
+        if (position < HEADER_BYTES || position > capacity) {
+            buffer.putLong(0, HEADER_BYTES);
+        }
+    }
+
+    synchronized Map<String, CacheEntry> load() {
+        Map<String, CacheEntry> loaded = new LinkedHashMap<>();
+        int end = (int) buffer.getLong(0);
+        var reader = buffer.duplicate().position(HEADER_BYTES).limit(end);
+
+        try {
+            while (reader.hasRemaining()) {
+                String key = readString(reader);
+                long expiresAt = reader.getLong();
+                String value = readString(reader);
+                loaded.put(key, new CacheEntry(value, expiresAt));
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            System.out.println("⚠️ LLM disk cache truncated, keeping " + loaded.size() + " entries");
+        }
+        return loaded;
+    }
+
+    synchronized boolean append(String key, CacheEntry entry) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = entry.value().getBytes(StandardCharsets.UTF_8);
+
+        int position = (int) buffer.getLong(0);
+        if (position + recordBytes(keyBytes.length, valueBytes.length) > buffer.capacity()) {
+            return false;
+        }
+
+        buffer.putInt(position, keyBytes.length);
+        buffer.put(position + Integer.BYTES, keyBytes);
+        position += Integer.BYTES + keyBytes.length;
+        buffer.putLong(position, entry.expiresAt());
+        position += Long.BYTES;
+        buffer.putInt(position, valueBytes.length);
+        buffer.put(position + Integer.BYTES, valueBytes);
+        position += Integer.BYTES + valueBytes.length;
+
+        buffer.putLong(0, position);
+        return true;
+    }
+
+    synchronized void rewrite(Map<String, CacheEntry> entries) {
+        List<Map.Entry<String, CacheEntry>> live = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        long available = buffer.capacity() - HEADER_BYTES;
+        List<Map.Entry<String, CacheEntry>> ordered = new ArrayList<>(entries.entrySet());
+
+        // Keep the most recently used entries that fit, written back oldest first
+        for (int i = ordered.size() - 1; i >= 0; i--) {
+            var entry = ordered.get(i);
+            int size = recordBytes(entry.getKey(), entry.getValue());
+            if (entry.getValue().expiresAt() <= now || size > available) {
+                continue;
+            }
+            available -= size;
+            live.add(0, entry);
+        }
+
+        buffer.putLong(0, HEADER_BYTES);
+        for (var entry : live) {
+            append(entry.getKey(), entry.getValue());
+        }
+    }
+
+    synchronized void close() {
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Error closing LLM disk cache: " + e.getMessage());
+        }
+    }
+
+    private static int recordBytes(String key, CacheEntry entry) {
+        return recordBytes(key.getBytes(StandardCharsets.UTF_8).length,
+            entry.value().getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static int recordBytes(int keyLength, int valueLength) {
+        return Integer.BYTES + keyLength + Long.BYTES + Integer.BYTES + valueLength;
+    }
+
+    private static String readString(ByteBuffer reader) {
+        int length = reader.getInt();
+        if (length < 0 || length > reader.remaining()) {
+            throw new IllegalArgumentException("Corrupt record length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        reader.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,85 @@
+package com.gazapps.llm;
+
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class RateLimitException extends RuntimeException {
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(5);
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+    private static final Pattern RETRY_DELAY = Pattern.compile("\"retryDelay\"\\s*:\\s*\"(\\d+(?:\\.\\d+)?)s\"");
+
+    private final Duration retryAfter;
+
+    public RateLimitException(Duration retryAfter, String body) {
+        super("Rate limit exceeded (status=429), retry after %dms: %s".formatted(retryAfter.toMillis(), body));
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+
+    static RateLimitException fromResponse(HttpHeaders headers, String body) {
+        Duration retryAfter = Duration.ZERO;
+
+        var header = headers.firstValue("retry-after");
+        if (header.isPresent()) {
+            retryAfter = max(retryAfter, parseRetryAfter(header.get()));
+        }
+        if (headers.firstValue("x-ratelimit-remaining-requests").filter("0"::equals).isPresent()) {
+            retryAfter = max(retryAfter, headers.firstValue("x-ratelimit-reset-requests")
+                .map(RateLimitException::parseDuration).orElse(Duration.ZERO));
+        }
+        if (headers.firstValue("x-ratelimit-remaining-tokens").filter("0"::equals).isPresent()) {
+            retryAfter = max(retryAfter, headers.firstValue("x-ratelimit-reset-tokens")
+                .map(RateLimitException::parseDuration).orElse(Duration.ZERO));
+        }
+        if (body != null) {
+            Matcher matcher = RETRY_DELAY.matcher(body);
+            if (matcher.find()) {
+                retryAfter = max(retryAfter, Duration.ofMillis((long) (Double.parseDouble(matcher.group(1)) * 1000)));
+            }
+        }
+
+        return new RateLimitException(retryAfter.isZero() ? DEFAULT_RETRY_AFTER : retryAfter, body);
+    }
+
+    private static Duration parseRetryAfter(String value) {
+        try {
+            return Duration.ofMillis((long) (Double.parseDouble(value.trim()) * 1000));
+        } catch (NumberFormatException e) {
+            try {
+                var date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                Duration untilDate = Duration.between(ZonedDateTime.now(date.getZone()), date);
+                return untilDate.isNegative() ? Duration.ZERO : untilDate;
+            } catch (DateTimeParseException ignored) {
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    // Provider reset headers look like "7.66s", "2m59.56s" or "120ms"
+    private static Duration parseDuration(String value) {
+        Matcher matcher = DURATION_PART.matcher(value);
+        double millis = 0;
+        while (matcher.find()) {
+            double amount = Double.parseDouble(matcher.group(1));
+            millis += switch (matcher.group(2)) {
+                case "h" -> amount * 3_600_000;
+                case "m" -> amount * 60_000;
+                case "s" -> amount * 1000;
+                default -> amount;
+            };
+        }
+        return Duration.ofMillis((long) millis);
+    }
+
+    private static Duration max(Duration a, Duration b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+}
@@ -0,0 +1,144 @@
+package com.gazapps.llm;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.gazapps.util.Futures.CancellationLink;
+
+public class RateLimitedLLMClient implements LLMClient {
+    private static final int MAX_RATE_LIMIT_RETRIES = 3;
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int EXPECTED_COMPLETION_TOKENS = 500;
+
+    private final List<PooledKey> keys;
+    private final AtomicLong queuedRequests = new AtomicLong();
+    private final AtomicLong queuedMillis = new AtomicLong();
+    private final AtomicLong rateLimitRetries = new AtomicLong();
+
+    public RateLimitedLLMClient(List<LLMClient> keyClients, int requestsPerMinute, int tokensPerMinute) {
+        if (keyClients == null || keyClients.isEmpty()) {
+            throw new IllegalArgumentException("At least one API key client is required");
+        }
+        this.keys = keyClients.stream()
+            .map(client -> new PooledKey(client, new TokenBucket(requestsPerMinute, tokensPerMinute)))
+            .toList();
+    }
+
+    @Override
+    public String send(String prompt) throws Exception {
+        return await(sendAsync(prompt));
+    }
+
+    @Override
+    public String stream(String prompt, Consumer<String> onToken) throws Exception {
+        return await(streamAsync(prompt, onToken));
+    }
+
+    @Override
+    public CompletableFuture<String> sendAsync(String prompt) {
+        return submit(prompt, client -> client.sendAsync(prompt));
+    }
+
+    @Override
+    public CompletableFuture<String> streamAsync(String prompt, Consumer<String> onToken) {
+        return submit(prompt, client -> client.streamAsync(prompt, onToken));
+    }
+
+    @Override
+    public boolean supportsFunctionCalling() {
+        return keys.get(0).client().supportsFunctionCalling();
+    }
+
+    @Override
+    public CompletableFuture<FunctionCallResponse> sendWithFunctionsAsync(String prompt, List<FunctionDeclaration> functions) {
+        return submit(prompt, client -> client.sendWithFunctionsAsync(prompt, functions));
+    }
+
+    @Override
+    public String getProviderName() {
+        return keys.get(0).client().getProviderName();
+    }
+
+    @Override
+    public boolean isHealthy() {
+        return keys.stream().anyMatch(key -> key.client().isHealthy());
+    }
+
+    public int getKeyCount() { return keys.size(); }
+    public long getQueuedRequests() { return queuedRequests.get(); }
+    public long getQueuedMillis() { return queuedMillis.get(); }
+    public long getRateLimitRetries() { return rateLimitRetries.get(); }
+
+    // The caller gets a copy, so cancelling it still lets a queued slot hand its budget back
+    private <T> CompletableFuture<T> submit(String prompt, Function<LLMClient, CompletableFuture<T>> call) {
+        CancellationLink link = new CancellationLink();
+        return link.bind(submit(prompt, call, 0, link).copy());
+    }
+
+    private <T> CompletableFuture<T> submit(String prompt, Function<LLMClient, CompletableFuture<T>> call,
+                                            int attempt, CancellationLink link) {
+        int tokens = estimateTokens(prompt);
+        PooledKey key;
+        long delay;
+        synchronized (this) {
+            key = keys.stream()
+                .min(Comparator.comparingLong(candidate -> candidate.bucket().delayFor(tokens)))
+                .orElseThrow();
+            delay = key.bucket().reserve(tokens);
+        }
+
+        CompletableFuture<Void> slot;
+        if (delay > 0) {
+            queuedRequests.incrementAndGet();
+            queuedMillis.addAndGet(delay);
+            slot = CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+            slot.whenComplete((ignored, error) -> {
+                if (slot.isCancelled()) {
+                    key.bucket().release(tokens);
+                }
+            });
+            link.track(slot);
+        } else {
+            slot = CompletableFuture.completedFuture(null);
+        }
+
+        return slot
+            .thenCompose(ignored -> {
+                if (link.isCancelled()) {
+                    key.bucket().release(tokens);
+                    return CompletableFuture.<T>failedFuture(new CancellationException());
+                }
+                return link.track(call.apply(key.client()));
+            })
+            .exceptionallyCompose(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof RateLimitException limited && attempt < MAX_RATE_LIMIT_RETRIES && !link.isCancelled()) {
+                    rateLimitRetries.incrementAndGet();
+                    key.bucket().pauseUntil(System.currentTimeMillis() + limited.retryAfter().toMillis());
+                    return submit(prompt, call, attempt + 1, link);
+                }
+                return CompletableFuture.<T>failedFuture(cause);
+            });
+    }
+
+    private static int estimateTokens(String prompt) {
+        return (prompt == null ? 0 : prompt.length() / CHARS_PER_TOKEN) + EXPECTED_COMPLETION_TOKENS;
+    }
+
+    private static String await(CompletableFuture<String> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    private record PooledKey(LLMClient client, TokenBucket bucket) {}
+}
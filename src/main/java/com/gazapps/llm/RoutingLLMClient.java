@@ -0,0 +1,265 @@
+package com.gazapps.llm;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+public class RoutingLLMClient implements LLMClient {
+    private static final double EWMA_ALPHA = 0.2;
+    private static final double MAX_ERROR_RATE = 0.5;
+    private static final long PROBE_INTERVAL_MS = 30_000;
+    private static final int LATENCY_WINDOW = 50;
+    private static final int MIN_SAMPLES_FOR_P95 = 5;
+    private static final Duration DEFAULT_HEDGE_DELAY = Duration.ofSeconds(2);
+
+    private final List<Backend> backends;
+    private final boolean hedging;
+    private final AtomicLong hedgedRequests = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    public RoutingLLMClient(List<LLMClient> clients, boolean hedging) {
+        if (clients == null || clients.isEmpty()) {
+            throw new IllegalArgumentException("At least one backend client is required");
+        }
+        this.backends = clients.stream().map(Backend::new).toList();
+        this.hedging = hedging;
+    }
+
+    @Override
+    public String send(String prompt) throws Exception {
+        try {
+            return sendAsync(prompt).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> sendAsync(String prompt) {
+        List<Backend> ranked = rank();
+        Backend primary = ranked.get(0);
+        Backend secondary = ranked.size() > 1 ? ranked.get(1) : null;
+
+        CompletableFuture<String> result = new CompletableFuture<>();
+        CompletableFuture<String> first = primary.sendAsync(prompt);
+        AtomicReference<CompletableFuture<String>> second = new AtomicReference<>();
+
+        Runnable launchSecond = () -> {
+            if (secondary == null || result.isDone()) {
+                return;
+            }
+            CompletableFuture<String> hedge = secondary.sendAsync(prompt);
+            if (!second.compareAndSet(null, hedge)) {
+                hedge.cancel(true);
+                return;
+            }
+            hedge.whenComplete((answer, error) -> {
+                if (error == null) {
+                    first.cancel(true);
+                    if (result.complete(answer)) {
+                        hedgeWins.incrementAndGet();
+                    }
+                } else if (first.isCompletedExceptionally()) {
+                    result.completeExceptionally(unwrap(error));
+                }
+            });
+        };
+
+        first.whenComplete((answer, error) -> {
+            if (error == null) {
+                if (second.get() != null) {
+                    second.get().cancel(true);
+                }
+                result.complete(answer);
+            } else if (secondary == null) {
+                result.completeExceptionally(unwrap(error));
+            } else if (second.get() == null) {
+                launchSecond.run();
+            } else if (second.get().isCompletedExceptionally()) {
+                result.completeExceptionally(unwrap(error));
+            }
+        });
+
+        if (hedging && secondary != null) {
+            CompletableFuture.delayedExecutor(primary.hedgeDelayMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+                if (!first.isDone() && second.get() == null) {
+                    hedgedRequests.incrementAndGet();
+                    launchSecond.run();
+                }
+            });
+        }
+
+        result.whenComplete((answer, error) -> {
+            if (result.isCancelled()) {
+                first.cancel(true);
+                if (second.get() != null) {
+                    second.get().cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public String stream(String prompt, Consumer<String> onToken) throws Exception {
+        Backend backend = rank().get(0);
+        long start = System.nanoTime();
+        try {
+            String answer = backend.client.stream(prompt, onToken);
+            backend.record(System.nanoTime() - start, true);
+            return answer;
+        } catch (Exception e) {
+            backend.record(System.nanoTime() - start, false);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> streamAsync(String prompt, Consumer<String> onToken) {
+        Backend backend = rank().get(0);
+        long start = System.nanoTime();
+        return backend.client.streamAsync(prompt, onToken)
+            .whenComplete((answer, error) -> backend.record(System.nanoTime() - start, error == null));
+    }
+
+    @Override
+    public boolean supportsFunctionCalling() {
+        return backends.stream().anyMatch(backend -> backend.client.supportsFunctionCalling());
+    }
+
+    @Override
+    public CompletableFuture<FunctionCallResponse> sendWithFunctionsAsync(String prompt, List<FunctionDeclaration> functions) {
+        Backend backend = rank().stream()
+            .filter(candidate -> candidate.client.supportsFunctionCalling())
+            .findFirst()
+            .orElse(backends.get(0));
+        return backend.track(() -> backend.client.sendWithFunctionsAsync(prompt, functions));
+    }
+
+    @Override
+    public String getProviderName() {
+        return backends.stream()
+            .map(backend -> backend.client.getProviderName())
+            .collect(Collectors.joining(", ", "Router[", "]"));
+    }
+
+    @Override
+    public boolean isHealthy() {
+        return backends.stream().anyMatch(backend -> backend.client.isHealthy());
+    }
+
+    public List<BackendStats> getBackendStats() {
+        return backends.stream().map(Backend::stats).toList();
+    }
+
+    public long getHedgedRequests() { return hedgedRequests.get(); }
+    public long getHedgeWins() { return hedgeWins.get(); }
+
+    private List<Backend> rank() {
+        long now = System.currentTimeMillis();
+        List<Backend> ranked = new ArrayList<>(backends);
+        ranked.sort(Comparator
+            .comparing((Backend backend) -> !backend.isAvailable(now))
+            .thenComparingDouble(backend -> backend.isAvailable(now) ? backend.latencyMs() : backend.errorRate()));
+        return ranked;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    public record BackendStats(String provider, double latencyMs, long p95Ms, double errorRate, long requests) {}
+
+    private static class Backend {
+        private final LLMClient client;
+        private final Deque<Long> recentLatencies = new ArrayDeque<>();
+        private double latencyMs;
+        private double errorRate;
+        private long requests;
+        private long lastErrorAt;
+
+        Backend(LLMClient client) {
+            this.client = client;
+        }
+
+        CompletableFuture<String> sendAsync(String prompt) {
+            return track(() -> client.sendAsync(prompt));
+        }
+
+        <T> CompletableFuture<T> track(Supplier<CompletableFuture<T>> request) {
+            long start = System.nanoTime();
+            CompletableFuture<T> call = request.get();
+            call.whenComplete((answer, error) -> {
+                if (unwrap(error) instanceof CancellationException) {
+                    // A cancelled loser took at least this long, so it still counts as a latency sample
+                    updateLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                } else {
+                    record(System.nanoTime() - start, error == null);
+                }
+            });
+            return call;
+        }
+
+        synchronized void record(long elapsedNanos, boolean success) {
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+            requests++;
+            errorRate = EWMA_ALPHA * (success ? 0 : 1) + (1 - EWMA_ALPHA) * errorRate;
+            if (!success) {
+                lastErrorAt = System.currentTimeMillis();
+                return;
+            }
+
+            updateLatency(elapsedMs);
+            recentLatencies.addLast(elapsedMs);
+            if (recentLatencies.size() > LATENCY_WINDOW) {
+                recentLatencies.removeFirst();
+            }
+        }
+
+        synchronized void updateLatency(long elapsedMs) {
+            latencyMs = latencyMs == 0 ? elapsedMs : EWMA_ALPHA * elapsedMs + (1 - EWMA_ALPHA) * latencyMs;
+        }
+
+        synchronized boolean isAvailable(long now) {
+            return errorRate < MAX_ERROR_RATE || now - lastErrorAt > PROBE_INTERVAL_MS;
+        }
+
+        synchronized double latencyMs() {
+            return latencyMs;
+        }
+
+        synchronized double errorRate() {
+            return errorRate;
+        }
+
+        synchronized long p95Millis() {
+            if (recentLatencies.size() < MIN_SAMPLES_FOR_P95) {
+                return -1;
+            }
+            List<Long> sorted = new ArrayList<>(recentLatencies);
+            sorted.sort(null);
+            return sorted.get((int) Math.ceil(sorted.size() * 0.95) - 1);
+        }
+
+        long hedgeDelayMillis() {
+            long p95 = p95Millis();
+            return p95 > 0 ? p95 : DEFAULT_HEDGE_DELAY.toMillis();
+        }
+
+        synchronized BackendStats stats() {
+            return new BackendStats(client.getProviderName(), latencyMs, p95Millis(), errorRate, requests);
+        }
+    }
+}
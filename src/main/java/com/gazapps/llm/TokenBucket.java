@@ -0,0 +1,70 @@
+package com.gazapps.llm;
+
+/**
+ * Requests-per-minute and tokens-per-minute budget for one API key.
+ * Reservations may run the budget negative; the caller waits for the
+ * returned delay, which keeps callers queued in arrival order.
+ */
+class TokenBucket {
+    private static final double MILLIS_PER_MINUTE = 60_000.0;
+
+    private final int requestsPerMinute;
+    private final int tokensPerMinute;
+    private double requestCredit;
+    private double tokenCredit;
+    private long lastRefill;
+    private long pausedUntil;
+
+    TokenBucket(int requestsPerMinute, int tokensPerMinute) {
+        if (requestsPerMinute <= 0 || tokensPerMinute <= 0) {
+            throw new IllegalArgumentException("Rate limits must be positive");
+        }
+        this.requestsPerMinute = requestsPerMinute;
+        this.tokensPerMinute = tokensPerMinute;
+        this.requestCredit = requestsPerMinute;
+        this.tokenCredit = tokensPerMinute;
+        this.lastRefill = System.currentTimeMillis();
+    }
+
+    synchronized long reserve(int tokens) {
+        long delay = delayFor(tokens);
+        requestCredit -= 1;
+        tokenCredit -= Math.min(tokens, tokensPerMinute);
+        return delay;
+    }
+
+    /** Hands back a reservation whose request was never sent. */
+    synchronized void release(int tokens) {
+        requestCredit = Math.min(requestsPerMinute, requestCredit + 1);
+        tokenCredit = Math.min(tokensPerMinute, tokenCredit + Math.min(tokens, tokensPerMinute));
+    }
+
+    synchronized long delayFor(int tokens) {
+        long now = System.currentTimeMillis();
+        refill(now);
+
+        long delay = Math.max(0, pausedUntil - now);
+        if (requestCredit < 1) {
+            delay = Math.max(delay, (long) Math.ceil((1 - requestCredit) * MILLIS_PER_MINUTE / requestsPerMinute));
+        }
+        double needed = Math.min(tokens, tokensPerMinute);
+        if (tokenCredit < needed) {
+            delay = Math.max(delay, (long) Math.ceil((needed - tokenCredit) * MILLIS_PER_MINUTE / tokensPerMinute));
+        }
+        return delay;
+    }
+
+    synchronized void pauseUntil(long epochMillis) {
+        pausedUntil = Math.max(pausedUntil, epochMillis);
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefill;
+        if (elapsed <= 0) {
+            return;
+        }
+        requestCredit = Math.min(requestsPerMinute, requestCredit + elapsed * requestsPerMinute / MILLIS_PER_MINUTE);
+        tokenCredit = Math.min(tokensPerMinute, tokenCredit + elapsed * tokensPerMinute / MILLIS_PER_MINUTE);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,51 @@
+package com.gazapps.mcp;
+
+import java.time.Duration;
+
+/**
+ * Per-server circuit breaker. After {@code failureThreshold} consecutive failures, or
+ * when a health check trips it, calls fail fast until {@code openDuration} has passed;
+ * then trial calls are let through and the first success closes it again.
+ */
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openDuration.toNanos()) {
+            state = State.HALF_OPEN;
+        }
+        return state != State.OPEN;
+    }
+
+    public synchronized void recordSuccess() {
+        failures = 0;
+        state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            trip();
+        }
+    }
+
+    public synchronized void trip() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+}
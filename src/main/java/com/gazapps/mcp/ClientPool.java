@@ -0,0 +1,244 @@
+package com.gazapps.mcp;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.gazapps.util.Futures.CancellationLink;
+
+import io.modelcontextprotocol.client.McpAsyncClient;
+
+/**
+ * Pool of clients, each with its own server process, for one server id.
+ * Calls go to the least busy client; when every client is busy and the pool is
+ * below its maximum size a new one is started, and idle extras are closed again.
+ * Calls never block the caller: only growing the pool runs on the given executor.
+ */
+public class ClientPool implements AutoCloseable {
+    private static final int RETIRED = -1;
+
+    private final String serverId;
+    private final Supplier<McpAsyncClient> factory;
+    private final int maxSize;
+    private final Duration idleTimeout;
+    private final Executor starter;
+    private final List<Member> members = new CopyOnWriteArrayList<>();
+    private int starting;
+    private boolean closed;
+
+    public ClientPool(String serverId, McpAsyncClient first, Supplier<McpAsyncClient> factory,
+                      int maxSize, Duration idleTimeout, Executor starter) {
+        this.serverId = serverId;
+        this.factory = factory;
+        this.maxSize = Math.max(1, maxSize);
+        this.idleTimeout = idleTimeout;
+        this.starter = starter;
+        members.add(new Member(first));
+    }
+
+    public <T> CompletableFuture<T> executeAsync(Function<McpAsyncClient, CompletableFuture<T>> call) {
+        Member idle = checkoutIdle();
+        CompletableFuture<Member> member = idle != null
+            ? CompletableFuture.completedFuture(idle)
+            : CompletableFuture.supplyAsync(this::checkout, starter);
+        // Cancelling the returned copy cancels the call, which releases the member; a member
+        // checked out after the cancellation is released as soon as its call is tracked
+        CancellationLink link = new CancellationLink();
+        return link.bind(member.thenCompose(checkedOut -> {
+            if (link.isCancelled()) {
+                checkedOut.release();
+                return CompletableFuture.<T>failedFuture(new CancellationException());
+            }
+            CompletableFuture<T> result;
+            try {
+                result = call.apply(checkedOut.client);
+            } catch (RuntimeException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            return link.track(result).whenComplete((ignored, error) -> checkedOut.release());
+        }).copy());
+    }
+
+    public McpAsyncClient primary() {
+        return members.get(0).client;
+    }
+
+    public int size() {
+        return members.size();
+    }
+
+    public int busyCount() {
+        return members.stream().mapToInt(member -> Math.max(0, member.busy.get())).sum();
+    }
+
+    private Member checkoutIdle() {
+        for (Member member : members) {
+            if (member.busy.compareAndSet(0, 1)) {
+                return member;
+            }
+        }
+        return null;
+    }
+
+    private Member checkout() {
+        while (true) {
+            Member least = null;
+            int leastBusy = Integer.MAX_VALUE;
+            for (Member member : members) {
+                int busy = member.busy.get();
+                if (busy >= 0 && busy < leastBusy) {
+                    least = member;
+                    leastBusy = busy;
+                }
+            }
+            if (leastBusy > 0) {
+                Member started = grow();
+                if (started != null) {
+                    return started;
+                }
+            }
+            if (least == null) {
+                throw new IllegalStateException("No client available for " + serverId);
+            }
+            if (least.acquire()) {
+                return least;
+            }
+        }
+    }
+
+    // Starting a process is slow, so the slot is reserved first and the process started outside the lock
+    private Member grow() {
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException(serverId + " client pool is closed");
+            }
+            if (members.size() + starting >= maxSize) {
+                return null;
+            }
+            starting++;
+        }
+        McpAsyncClient client;
+        try {
+            client = factory.get();
+        } finally {
+            synchronized (this) {
+                starting--;
+            }
+        }
+        if (client == null) {
+            return null;
+        }
+        Member member = new Member(client);
+        member.busy.set(1);
+        // close() may have run while the process was starting; the new client must not outlive the pool
+        boolean added;
+        synchronized (this) {
+            added = !closed && members.add(member);
+        }
+        if (!added) {
+            closeQuietly(client);
+            throw new IllegalStateException(serverId + " client pool is closed");
+        }
+        System.out.println("➕ " + serverId + " pool grew to " + members.size() + " clients");
+        return member;
+    }
+
+    /**
+     * Pings every client and closes the ones that fail, as long as at least one answers;
+     * completes with the number of clients that answered.
+     */
+    public CompletableFuture<Integer> evictUnresponsive(Function<McpAsyncClient, CompletableFuture<?>> ping) {
+        List<Member> snapshot = List.copyOf(members);
+        List<CompletableFuture<Boolean>> answers = snapshot.stream()
+            .map(member -> {
+                try {
+                    return ping.apply(member.client).handle((ignored, error) -> error == null);
+                } catch (RuntimeException e) {
+                    return CompletableFuture.completedFuture(false);
+                }
+            })
+            .toList();
+        return CompletableFuture.allOf(answers.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            int alive = (int) answers.stream().filter(CompletableFuture::join).count();
+            if (alive == 0) {
+                return 0;
+            }
+            for (int i = 0; i < snapshot.size(); i++) {
+                Member member = snapshot.get(i);
+                if (!answers.get(i).join() && members.remove(member)) {
+                    member.busy.set(RETIRED);
+                    closeQuietly(member.client);
+                    System.out.println("➖ " + serverId + " client evicted after a failed ping, " + members.size() + " left");
+                }
+            }
+            return alive;
+        });
+    }
+
+    /** Closes clients idle for longer than the idle timeout, always keeping the first one. */
+    public void shrinkIdle() {
+        long cutoff = System.nanoTime() - idleTimeout.toNanos();
+        List<Member> snapshot = List.copyOf(members);
+        if (snapshot.size() < 2) {
+            return;
+        }
+        for (Member member : snapshot.subList(1, snapshot.size())) {
+            if (member.lastUsed < cutoff && member.busy.compareAndSet(0, RETIRED)) {
+                members.remove(member);
+                closeQuietly(member.client);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        for (Member member : members) {
+            member.busy.set(RETIRED);
+            closeQuietly(member.client);
+        }
+        members.clear();
+    }
+
+    private void closeQuietly(McpAsyncClient client) {
+        try {
+            client.close();
+        } catch (Exception e) {
+            System.out.println("Error closing " + serverId + " client: " + e.getMessage());
+        }
+    }
+
+    private static class Member {
+        private final McpAsyncClient client;
+        private final AtomicInteger busy = new AtomicInteger();
+        private volatile long lastUsed = System.nanoTime();
+
+        Member(McpAsyncClient client) {
+            this.client = client;
+        }
+
+        boolean acquire() {
+            int current;
+            do {
+                current = busy.get();
+                if (current < 0) {
+                    return false;
+                }
+            } while (!busy.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        void release() {
+            lastUsed = System.nanoTime();
+            busy.decrementAndGet();
+        }
+    }
+}
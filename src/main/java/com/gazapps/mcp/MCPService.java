@@ -2,120 +2,348 @@ package com.gazapps.mcp;
 
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gazapps.util.Futures;
+import com.gazapps.util.Futures.CancellationLink;
+import com.gazapps.util.SingleFlight;
+
+import io.modelcontextprotocol.client.McpAsyncClient;
 import io.modelcontextprotocol.client.McpClient;
-import io.modelcontextprotocol.client.McpSyncClient;
 import io.modelcontextprotocol.client.transport.ServerParameters;
 import io.modelcontextprotocol.client.transport.StdioClientTransport;
+import io.modelcontextprotocol.spec.McpClientTransport;
 import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
 import io.modelcontextprotocol.spec.McpSchema.CallToolResult;
 import io.modelcontextprotocol.spec.McpSchema.Content;
 import io.modelcontextprotocol.spec.McpSchema.ListToolsResult;
 import io.modelcontextprotocol.spec.McpSchema.TextContent;
+import reactor.core.publisher.Mono;
 
 public class MCPService {
+    private static final ObjectMapper SCHEMA_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> SCHEMA_TYPE = new TypeReference<>() {};
+    public static final int DEFAULT_POOL_SIZE = 3;
+    private static final Duration POOL_IDLE_TIMEOUT = Duration.ofMinutes(2);
+    private static final int MAX_ATTEMPTS = 2;
+    private static final Duration HEALTH_CHECK_INTERVAL = Duration.ofSeconds(10);
+    private static final Duration PING_TIMEOUT = Duration.ofSeconds(3);
+    private static final Duration RESTART_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration MAX_RESTART_BACKOFF = Duration.ofMinutes(10);
+    private static final long TOOL_CACHE_BYTES = 8L * 1024 * 1024;
+    private static final Duration TOOL_CACHE_TTL = Duration.ofMinutes(5);
+    private static final int BREAKER_FAILURE_THRESHOLD = 3;
+    private static final Duration BREAKER_OPEN_DURATION = Duration.ofSeconds(30);
+    private static final ExecutorService connectExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private static final List<ServerConfig> SERVER_CONFIGS = List.of(
+        new ServerConfig("weather-server", "Weather", List.of("npx", "-y", "@h1deya/mcp-server-weather")),
+        new ServerConfig("filesystem-server", "Filesystem", List.of("npx", "-y", "@modelcontextprotocol/server-filesystem", ".")),
+        new ServerConfig("time-server", "Time", List.of("uvx", "mcp-server-time"))
+    );
+
     private final Map<String, Server> servers;
-    private final Map<String, McpSyncClient> clients;
+    private final Map<String, ClientPool> clients;
+    private final Map<String, CompletableFuture<Void>> connections = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Set<String> reconnecting = ConcurrentHashMap.newKeySet();
+    private final Map<String, StartFailure> startFailures = new ConcurrentHashMap<>();
+    private final Map<String, ToolProvider> providers = new ConcurrentHashMap<>();
+    private final SingleFlight<ToolCallKey, ToolResult> inFlightCalls = new SingleFlight<>();
+    private final ToolRegistry registry = new ToolRegistry();
+    private final ServerLauncher launcher = new ServerLauncher();
+    private final ToolCatalog catalog = new ToolCatalog();
+    private final ToolResultCache resultCache = new ToolResultCache(TOOL_CACHE_BYTES, TOOL_CACHE_TTL);
+    private final StartupMode startupMode;
+    private final int poolSize;
+    private final boolean nioTransport;
+    private final ScheduledExecutorService maintenance;
+    private volatile boolean closed;
     
     public MCPService() {
+        this(StartupMode.EAGER);
+    }
+    
+    public MCPService(StartupMode startupMode) {
+        this(startupMode, DEFAULT_POOL_SIZE);
+    }
+    
+    public MCPService(StartupMode startupMode, int poolSize) {
+        this(startupMode, poolSize, false);
+    }
+    
+    public MCPService(StartupMode startupMode, int poolSize, boolean nioTransport) {
+        this(startupMode, poolSize, nioTransport, true);
+    }
+    
+    /** With {@code builtinTools} off, every server runs as its external MCP process. */
+    public MCPService(StartupMode startupMode, int poolSize, boolean nioTransport, boolean builtinTools) {
         this.servers = new ConcurrentHashMap<>();
         this.clients = new ConcurrentHashMap<>();
+        this.startupMode = startupMode;
+        this.poolSize = Math.max(1, poolSize);
+        this.nioTransport = nioTransport;
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().factory());
+        long sweepSeconds = POOL_IDLE_TIMEOUT.toSeconds() / 2;
+        maintenance.scheduleWithFixedDelay(
+            () -> clients.values().forEach(ClientPool::shrinkIdle), sweepSeconds, sweepSeconds, TimeUnit.SECONDS);
+        configureToolCache();
+        long healthSeconds = HEALTH_CHECK_INTERVAL.toSeconds();
+        maintenance.scheduleWithFixedDelay(this::checkHealth, healthSeconds, healthSeconds, TimeUnit.SECONDS);
         
+        if (builtinTools) {
+            registerProviders();
+        }
         initializeServers();
     }
     
+    // A provider claims its server id up front, so startServer never spawns a process for it
+    private void registerProviders() {
+        for (ToolProvider provider : ServiceLoader.load(ToolProvider.class)) {
+            Server server = new Server(provider.serverId(), provider.name(), true);
+            server.setTools(provider.tools());
+            providers.put(provider.serverId(), provider);
+            servers.put(provider.serverId(), server);
+            connections.put(provider.serverId(), CompletableFuture.completedFuture(null));
+            registry.register(provider.serverId(), server.getTools());
+            System.out.printf("✅ %s tools built in (%d tools)%n", provider.name(), server.getToolCount());
+        }
+    }
+    
     private void initializeServers() {
-        connectToWeatherServer();
-        connectToFilesystemServer();
-        connectToTimeServer();
+        switch (startupMode) {
+            case EAGER -> {
+                long start = System.nanoTime();
+                awaitAllServers();
+                System.out.printf("MCP servers ready in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+            }
+            case BACKGROUND -> SERVER_CONFIGS.forEach(config -> startServer(config.id()));
+            case LAZY -> offerCatalogTools();
+        }
     }
     
-    private void connectToWeatherServer() {
-        try {
-            String[] command = {"npx", "-y", "@h1deya/mcp-server-weather"};
-            McpSyncClient client = createClient("weather-server", command);
-            
-            if (client != null) {
-                Server server = new Server("weather-server", "Weather", true);
-                loadServerTools(server, client);
-                
-                servers.put("weather-server", server);
-                clients.put("weather-server", client);
-                
-                System.out.println("✅ Weather server connected with " + server.getToolCount() + " tools");
+    // Lazy servers offer the tools recorded when they last connected; calling one starts the server
+    private void offerCatalogTools() {
+        for (ServerConfig config : SERVER_CONFIGS) {
+            if (servers.containsKey(config.id())) {
+                continue;
             }
-        } catch (Exception e) {
-            System.out.println("❌ Weather server failed: " + e.getMessage());
+            List<Tool> tools = catalog.tools(config.id());
+            if (tools.isEmpty()) {
+                System.out.println("ℹ️ No recorded tools for " + config.name()
+                    + " yet; start once with MCP_STARTUP=background to record them");
+                continue;
+            }
+            registry.register(config.id(), tools);
         }
     }
     
-    private void connectToFilesystemServer() {
+    // Servers connect concurrently, so cold start costs the slowest server rather than the sum
+    private void awaitAllServers() {
+        CompletableFuture.allOf(SERVER_CONFIGS.stream()
+                .map(config -> startServer(config.id()))
+                .toArray(CompletableFuture[]::new))
+            .join();
+    }
+    
+    private CompletableFuture<Void> startServer(String serverId) {
+        ServerConfig config = SERVER_CONFIGS.stream()
+            .filter(candidate -> candidate.id().equals(serverId))
+            .findFirst()
+            .orElse(null);
+        if (config == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return connections.computeIfAbsent(serverId,
+            ignored -> CompletableFuture.runAsync(() -> connectServer(config), connectExecutor));
+    }
+    
+    private void connectServer(ServerConfig config) {
+        long start = System.nanoTime();
         try {
-        	String basePath = ".";
-            String[] command = {"npx", "-y", "@modelcontextprotocol/server-filesystem", basePath};
-            McpSyncClient client = createClient("filesystem-server", command);
+            List<String> command = launcher.resolve(config.command());
+            long spawned = System.nanoTime();
+            McpAsyncClient client = createClient(config.id(), command);
+            long initialized = System.nanoTime();
             
             if (client != null) {
-                Server server = new Server("filesystem-server", "Filesystem", true);
+                Server server = new Server(config.id(), config.name(), true);
                 loadServerTools(server, client);
                 
-                servers.put("filesystem-server", server);
-                clients.put("filesystem-server", client);
+                if (closed) {
+                    client.close();
+                    return;
+                }
+                clients.put(config.id(), new ClientPool(config.id(), client,
+                    () -> createClient(config.id(), command), poolSize, POOL_IDLE_TIMEOUT, connectExecutor));
+                servers.put(config.id(), server);
+                registry.register(config.id(), server.getTools());
+                catalog.record(config.id(), server.getTools());
+                
+                startFailures.remove(config.id());
                 
-                System.out.println("✅ Filesystem server connected with " + server.getToolCount() + " tools");
+                System.out.printf("✅ %s server connected with %d tools (resolve %d ms, spawn to initialized %d ms, total %d ms)%n",
+                    config.name(), server.getToolCount(), (spawned - start) / 1_000_000,
+                    (initialized - spawned) / 1_000_000, (System.nanoTime() - start) / 1_000_000);
+                return;
             }
         } catch (Exception e) {
-            System.out.println("❌ Filesystem server failed: " + e.getMessage());
+            System.out.println("❌ " + config.name() + " server failed: " + e.getMessage());
         }
+        recordStartFailure(config);
     }
     
-    private void connectToTimeServer() {
-        try {
-            String[] command = {"uvx", "mcp-server-time"};
-            McpSyncClient client = createClient("time-server", command);
-            
-            if (client != null) {
-                Server server = new Server("time-server", "Time", true);
-                loadServerTools(server, client);
-                
-                servers.put("time-server", server);
-                clients.put("time-server", client);
-                
-                System.out.println("✅ Time server connected with " + server.getToolCount() + " tools");
+    // Each failed start doubles the wait before the health check spawns the server again
+    private void recordStartFailure(ServerConfig config) {
+        StartFailure failure = startFailures.compute(config.id(), (id, previous) -> {
+            int attempts = previous == null ? 1 : previous.attempts() + 1;
+            long backoff = Math.min(MAX_RESTART_BACKOFF.toMillis(), RESTART_BACKOFF.toMillis() << Math.min(attempts - 1, 10));
+            return new StartFailure(attempts, System.currentTimeMillis() + backoff);
+        });
+        long backoff = failure.retryAt() - System.currentTimeMillis();
+        System.out.printf("⏳ %s server will be retried in %d s%n", config.name(), backoff / 1000);
+    }
+    
+    // Most servers don't annotate their tools yet, so the known read-only ones are listed here
+    private void configureToolCache() {
+        resultCache.setTtl("weather-server", "get-forecast", Duration.ofMinutes(10));
+        resultCache.setTtl("weather-server", "get-alerts", Duration.ofMinutes(5));
+        for (String tool : List.of("read_file", "read_text_file", "read_multiple_files", "list_directory",
+                "list_directory_with_sizes", "get_file_info", "list_allowed_directories")) {
+            resultCache.setTtl("filesystem-server", tool, Duration.ofMinutes(30));
+        }
+        // Recursive results depend on files below the root, which the root's stamp does not cover
+        resultCache.setTtl("filesystem-server", "directory_tree", Duration.ZERO);
+        resultCache.setTtl("filesystem-server", "search_files", Duration.ZERO);
+        resultCache.setTtl("time-server", "get_current_time", Duration.ZERO);
+    }
+    
+    // Pings run asynchronously; a server that misses one is marked down, its tools are
+    // withdrawn and it is respawned, while its breaker makes calls fail fast meanwhile
+    private void checkHealth() {
+        if (closed) {
+            return;
+        }
+        for (ServerConfig config : SERVER_CONFIGS) {
+            CompletableFuture<Void> connection = connections.get(config.id());
+            if (connection == null || !connection.isDone() || reconnecting.contains(config.id())
+                    || providers.containsKey(config.id())) {
+                continue;
             }
-        } catch (Exception e) {
-            System.out.println("❌ Time server failed: " + e.getMessage());
+            ClientPool pool = clients.get(config.id());
+            if (pool == null) {
+                StartFailure failure = startFailures.get(config.id());
+                boolean backingOff = failure != null && System.currentTimeMillis() < failure.retryAt();
+                if (!backingOff && breakerFor(config.id()).allowRequest()) {
+                    reconnect(config);
+                }
+                continue;
+            }
+            // Every pooled process is pinged; dead ones are evicted and the server is down only when none answers
+            pool.evictUnresponsive(client -> client.ping().timeout(PING_TIMEOUT).toFuture())
+                .whenComplete((alive, error) -> {
+                    if (error == null && alive > 0) {
+                        breakerFor(config.id()).recordSuccess();
+                    } else {
+                        serverDown(config, error != null ? error : new IllegalStateException("no client answered a ping"));
+                    }
+                });
         }
     }
     
-    private McpSyncClient createClient(String serverId, String[] command) {
-        try {
-            String[] fullCommand;
-            if (System.getProperty("os.name").toLowerCase().contains("win")) {
-                fullCommand = new String[command.length + 2];
-                fullCommand[0] = "cmd.exe";
-                fullCommand[1] = "/c";
-                System.arraycopy(command, 0, fullCommand, 2, command.length);
-            } else {
-                fullCommand = command;
+    private void serverDown(ServerConfig config, Throwable error) {
+        Server server = servers.get(config.id());
+        if (server != null && server.isConnected()) {
+            server.setConnected(false);
+            registry.remove(config.id());
+            System.out.println("⚠️ " + config.name() + " server is not responding: " + error.getMessage());
+        }
+        breakerFor(config.id()).trip();
+        reconnect(config);
+    }
+    
+    private void reconnect(ServerConfig config) {
+        if (closed || !reconnecting.add(config.id())) {
+            return;
+        }
+        connectExecutor.execute(() -> {
+            try {
+                ClientPool old = clients.remove(config.id());
+                if (old != null) {
+                    old.close();
+                }
+                connectServer(config);
+                if (clients.containsKey(config.id())) {
+                    breakerFor(config.id()).recordSuccess();
+                    System.out.println("🔁 " + config.name() + " server reconnected");
+                } else {
+                    breakerFor(config.id()).trip();
+                }
+            } finally {
+                reconnecting.remove(config.id());
             }
-            
-            ServerParameters serverParams = ServerParameters.builder(fullCommand[0])
-                .args(Arrays.copyOfRange(fullCommand, 1, fullCommand.length))
+        });
+    }
+    
+    private CircuitBreaker breakerFor(String serverId) {
+        return breakers.computeIfAbsent(serverId,
+            ignored -> new CircuitBreaker(BREAKER_FAILURE_THRESHOLD, BREAKER_OPEN_DURATION));
+    }
+    
+    public CircuitBreaker.State getCircuitState(String serverId) {
+        return breakerFor(serverId).state();
+    }
+    
+    public StartupMode getStartupMode() {
+        return startupMode;
+    }
+    
+    public int getPoolSize() {
+        return poolSize;
+    }
+    
+    public long getPendingServerCount() {
+        return SERVER_CONFIGS.stream()
+            .map(config -> connections.get(config.id()))
+            .filter(connection -> connection == null || !connection.isDone())
+            .count();
+    }
+    
+    // The command comes from ServerLauncher, already resolved to the executable or wrapped for the shell
+    private McpAsyncClient createClient(String serverId, List<String> command) {
+        try {
+            ServerParameters serverParams = ServerParameters.builder(command.get(0))
+                .args(command.subList(1, command.size()))
                 .build();
             
-            StdioClientTransport transport = new StdioClientTransport(serverParams);
+            McpClientTransport transport = nioTransport
+                ? new NioStdioClientTransport(serverParams)
+                : new StdioClientTransport(serverParams);
             
-            McpSyncClient client = McpClient.sync(transport)
+            // Refresh off the notification thread, since listTools blocks on the same transport
+            McpAsyncClient client = McpClient.async(transport)
                 .requestTimeout(Duration.ofSeconds(15))
+                .toolsChangeConsumer(tools -> Mono.fromRunnable(() -> connectExecutor.execute(() -> refreshTools(serverId))))
                 .build();
-           client.initialize();
+            client.initialize().block();
             
             return client;
             
@@ -125,45 +353,63 @@ public class MCPService {
         }
     }
     
-    private void loadServerTools(Server server, McpSyncClient client) {
+    private void loadServerTools(Server server, McpAsyncClient client) {
         try {
-            ListToolsResult toolsResult = client.listTools();
+            List<Tool> tools = new ArrayList<>();
+            Set<String> seenCursors = new HashSet<>();
+            String cursor = null;
             
-            for (io.modelcontextprotocol.spec.McpSchema.Tool mcpTool : toolsResult.tools()) {
-                Map<String, Object> inputSchema = convertMcpSchema(mcpTool.inputSchema());
-                Tool tool = new Tool(mcpTool.name(), mcpTool.description(), server.id(), inputSchema);
-                server.addTool(tool);
-            }
+            do {
+                ListToolsResult toolsResult = (cursor == null ? client.listTools() : client.listTools(cursor)).block();
+                for (io.modelcontextprotocol.spec.McpSchema.Tool mcpTool : toolsResult.tools()) {
+                    Map<String, Object> inputSchema = convertMcpSchema(mcpTool.inputSchema());
+                    tools.add(new Tool(mcpTool.name(), mcpTool.description(), server.id(), inputSchema,
+                        convertAnnotations(mcpTool)));
+                }
+                cursor = toolsResult.nextCursor();
+            } while (cursor != null && !cursor.isEmpty() && seenCursors.add(cursor));
+            
+            server.setTools(tools);
             
         } catch (Exception e) {
             System.out.println("Error loading tools for " + server.id() + ": " + e.getMessage());
         }
     }
     
+    private void refreshTools(String serverId) {
+        Server server = servers.get(serverId);
+        ClientPool pool = clients.get(serverId);
+        if (server == null || pool == null || closed) {
+            return;
+        }
+        loadServerTools(server, pool.primary());
+        registry.register(serverId, server.getTools());
+        catalog.record(serverId, server.getTools());
+        resultCache.invalidate(serverId);
+        System.out.println("🔄 " + server.name() + " tools changed, now " + server.getToolCount() + " tools");
+    }
+    
+    // Read through Jackson so servers built on SDKs with or without tool annotations both work
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> convertAnnotations(io.modelcontextprotocol.spec.McpSchema.Tool mcpTool) {
+        try {
+            Object annotations = SCHEMA_MAPPER.convertValue(mcpTool, SCHEMA_TYPE).get("annotations");
+            return annotations instanceof Map ? (Map<String, Object>) annotations : Map.of();
+        } catch (IllegalArgumentException e) {
+            return Map.of();
+        }
+    }
+    
     private static Map<String, Object> convertMcpSchema(Object inputSchema) {
         if (inputSchema == null) {
             return Collections.emptyMap();
         }
         
         try {
+            // Round-trip through Jackson so $defs, additionalProperties and nested keywords survive
             if (inputSchema instanceof io.modelcontextprotocol.spec.McpSchema.JsonSchema) {
-                io.modelcontextprotocol.spec.McpSchema.JsonSchema jsonSchema = 
-                    (io.modelcontextprotocol.spec.McpSchema.JsonSchema) inputSchema;
-                
-                Map<String, Object> result = new HashMap<>();
-                
-                if (jsonSchema.properties() != null && !jsonSchema.properties().isEmpty()) {
-                    result.put("properties", new HashMap<>(jsonSchema.properties()));
-                }
-                
-                if (jsonSchema.required() != null && !jsonSchema.required().isEmpty()) {
-                    result.put("required", new ArrayList<>(jsonSchema.required()));
-                }
-                
-                if (jsonSchema.type() != null) {
-                    result.put("type", jsonSchema.type());
-                }
-                
+                Map<String, Object> result = new HashMap<>(SCHEMA_MAPPER.convertValue(inputSchema, SCHEMA_TYPE));
+                result.values().removeIf(Objects::isNull);
                 return result;
             }
             
@@ -179,141 +425,151 @@ public class MCPService {
         return Collections.emptyMap();
     }
     
-    @SuppressWarnings("unchecked")
     public ToolResult callTool(String serverId, String toolName, Map<String, Object> args) {
-
-        Server server = servers.get(serverId);
-        if (server == null) {
-            return ToolResult.error("Server not found: " + serverId);
-        }
-        
-        if (!server.isConnected()) {
-            return ToolResult.error("Server is not connected");
-        }
-        
-        Tool tool = server.getTool(toolName);
-        if (tool == null) {
-            return ToolResult.error("Tool not found: " + toolName);
-        }
-
-        Map<String, Object> schema = tool.inputSchema();
-        List<String> requiredParams = (List<String>) schema.getOrDefault("required", Collections.emptyList());
-        Map<String, Object> properties = (Map<String, Object>) schema.getOrDefault("properties", Collections.emptyMap());
-        
-
-        Map<String, Object> convertedArgs = new HashMap<>(args);
-        
-
-        for (String param : requiredParams) {
-            if (!args.containsKey(param)) {
-                return ToolResult.error("Missing required parameter: " + param);
+        return callToolAsync(serverId, toolName, args).join();
+    }
+    
+    /**
+     * Calls a tool without blocking. Cancelling the returned future cancels the MCP request
+     * and frees its pooled client, unless other callers still share the same coalesced call.
+     */
+    public CompletableFuture<ToolResult> callToolAsync(String serverId, String toolName, Map<String, Object> args) {
+        CancellationLink link = new CancellationLink();
+        CompletableFuture<Void> ready = servers.containsKey(serverId)
+            ? CompletableFuture.completedFuture(null)
+            : startServer(serverId);
+        return link.bind(ready.thenCompose(ignored -> {
+            Server server = servers.get(serverId);
+            if (server == null) {
+                return CompletableFuture.completedFuture(ToolResult.error("Server not found: " + serverId));
             }
-        }
-        
-        for (Map.Entry<String, Object> entry : args.entrySet()) {
-            String paramName = entry.getKey();
-            Object paramValue = entry.getValue();
-            Map<String, Object> paramSchema = (Map<String, Object>) properties.get(paramName);
-            if (paramSchema != null) {
-                String expectedType = (String) paramSchema.get("type");
-                if (expectedType != null) {
-                    if (!isValidType(paramValue, expectedType)) {
-                        return ToolResult.error("Invalid type for parameter " + paramName + ": expected " + expectedType);
-                    }
-                    if ("number".equals(expectedType) && paramValue instanceof String stringValue) {
-                        try {
-                            convertedArgs.put(paramName, Double.parseDouble(stringValue));
-                        } catch (NumberFormatException e) {
-                            return ToolResult.error("Cannot convert parameter " + paramName + " to number: " + stringValue);
-                        }
-                    }
-                    else if ("boolean".equals(expectedType) && paramValue instanceof String stringValue) {
-                        if ("true".equalsIgnoreCase(stringValue)) {
-                            convertedArgs.put(paramName, true);
-                        } else if ("false".equalsIgnoreCase(stringValue)) {
-                            convertedArgs.put(paramName, false);
-                        } else {
-                            return ToolResult.error("Cannot convert parameter " + paramName + " to boolean: " + stringValue);
-                        }
-                    }
-                }
+            
+            if (!breakerFor(serverId).allowRequest()) {
+                return CompletableFuture.completedFuture(
+                    ToolResult.error("Server " + serverId + " is unavailable, retrying connection in the background"));
             }
-        }
-        
-        return executeToolWithRetry(server, tool, convertedArgs);
+            
+            if (!server.isConnected()) {
+                return CompletableFuture.completedFuture(ToolResult.error("Server is not connected"));
+            }
+            
+            Tool tool = registry.get(serverId, toolName);
+            if (tool == null) {
+                return CompletableFuture.completedFuture(ToolResult.error("Tool not found: " + toolName));
+            }
+            
+            Map<String, Object> convertedArgs;
+            try {
+                convertedArgs = tool.validator().coerce(args);
+            } catch (SchemaValidator.SchemaViolation e) {
+                return CompletableFuture.completedFuture(ToolResult.error(e.getMessage()));
+            }
+            
+            ToolResult cached = resultCache.lookup(tool, convertedArgs);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            
+            ToolProvider provider = providers.get(serverId);
+            // Built-in tools run on a virtual thread, so plan steps over them still overlap
+            if (provider != null) {
+                return link.track(CompletableFuture.supplyAsync(() -> {
+                    ToolResult result = executeProvided(provider, tool, convertedArgs);
+                    cacheResult(tool, convertedArgs, result);
+                    return result;
+                }, connectExecutor));
+            }
+            
+            CancellationLink attempts = new CancellationLink();
+            return link.track(inFlightCalls.executeAsync(new ToolCallKey(server.id(), tool.name(), convertedArgs),
+                    () -> attempts.bind(executeToolWithRetry(server, tool, convertedArgs, 1, attempts))))
+                .thenApply(result -> {
+                    cacheResult(tool, convertedArgs, result);
+                    return result;
+                });
+        }).exceptionally(error -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            return ToolResult.error("Tool call failed: " + cause.getMessage(), asException(cause));
+        }).copy());
     }
-
-    private boolean isValidType(Object value, String expectedType) {
-        if (value == null) {
-            return false; 
+    
+    // A successful write may change anything the server's cached results were read from
+    private void cacheResult(Tool tool, Map<String, Object> args, ToolResult result) {
+        if (resultCache.isReadOnly(tool)) {
+            resultCache.store(tool, args, result);
+        } else if (result.success()) {
+            resultCache.invalidate(tool.serverId());
         }
+    }
+    
+    public long getCoalescedCallCount() {
+        return inFlightCalls.getCoalescedCount();
+    }
+    
+    public ToolResultCache getResultCache() {
+        return resultCache;
+    }
 
-        return switch (expectedType) {
-            case "string" -> value instanceof String;
-            case "number" -> {
-                if (value instanceof Number) {
-                    yield true;
-                }
-                if (value instanceof String stringValue) {
-                    try {
-                        Double.parseDouble(stringValue);
-                        yield true;
-                    } catch (NumberFormatException e) {
-                        yield false;
-                    }
+    // Backoff waits on a delayed executor, so no thread is parked between attempts
+    private CompletableFuture<ToolResult> executeToolWithRetry(Server server, Tool tool, Map<String, Object> args,
+                                                               int attempt, CancellationLink link) {
+        return link.track(executeToolDirect(server, tool, args))
+            .handle((result, error) -> {
+                if (error == null) {
+                    return CompletableFuture.completedFuture(result);
                 }
-                yield false;
-            }
-            case "boolean" -> {
-                if (value instanceof Boolean) {
-                    yield true;
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof CancellationException) {
+                    return CompletableFuture.<ToolResult>failedFuture(cause);
                 }
-                if (value instanceof String stringValue) {
-                    yield "true".equalsIgnoreCase(stringValue) || "false".equalsIgnoreCase(stringValue);
+                if (attempt >= MAX_ATTEMPTS || !breakerFor(server.id()).allowRequest()) {
+                    return CompletableFuture.completedFuture(
+                        ToolResult.error("Failed after " + attempt + " attempts", asException(cause)));
                 }
-                yield false;
-            }
-            default -> true; 
-        };
+                Executor backoff = CompletableFuture.delayedExecutor(1000L * attempt, TimeUnit.MILLISECONDS);
+                return CompletableFuture.supplyAsync(() -> attempt + 1, backoff)
+                    .thenCompose(next -> executeToolWithRetry(server, tool, args, next, link));
+            })
+            .thenCompose(Function.identity());
     }
     
-    private ToolResult executeToolWithRetry(Server server, Tool tool, Map<String, Object> args) {
-        Exception lastException = null;
-        int maxRetries = 2;
-        
-        for (int attempt = 1; attempt <= maxRetries; attempt++) {
-            try {
-                return executeToolDirect(server, tool, args);
-                
-            } catch (Exception e) {
-                lastException = e;
-                
-                if (attempt < maxRetries) {
-                    try {
-                        Thread.sleep(1000 * attempt); // Simple backoff
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                }
-            }
+    private CompletableFuture<ToolResult> executeToolDirect(Server server, Tool tool, Map<String, Object> args) {
+        ClientPool pool = clients.get(server.id());
+        if (pool == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Server is not connected: " + server.id()));
         }
         
-        return ToolResult.error("Failed after " + maxRetries + " attempts", lastException);
+        // Each pooled client has its own process and pipe, so concurrent calls to one server run in parallel.
+        // Only transport failures count against the breaker; a tool reporting isError is a healthy server.
+        CircuitBreaker breaker = breakerFor(server.id());
+        CallToolRequest request = new CallToolRequest(tool.name(), args != null ? args : Map.of());
+        CompletableFuture<CallToolResult> call = pool.executeAsync(client -> client.callTool(request).toFuture());
+        return Futures.propagateCancellation(call
+            .whenComplete((result, error) -> {
+                if (error == null) {
+                    breaker.recordSuccess();
+                } else if (!(error instanceof CancellationException)) {
+                    breaker.recordFailure();
+                }
+            })
+            .thenApply(result -> {
+                if (result.isError() != null && result.isError()) {
+                    throw new CompletionException(new Exception("Tool execution failed: " + result.toString()));
+                }
+                return ToolResult.success(tool, extractContent(result.content()));
+            }), call);
     }
     
-    private ToolResult executeToolDirect(Server server, Tool tool, Map<String, Object> args) throws Exception {
-        McpSyncClient client = clients.get(server.id());
-        
-        CallToolRequest request = new CallToolRequest(tool.name(), args != null ? args : Map.of());
-        CallToolResult result = client.callTool(request);
-        
-        if (result.isError() != null && result.isError()) {
-            throw new Exception("Tool execution failed: " + result.toString());
+    private static ToolResult executeProvided(ToolProvider provider, Tool tool, Map<String, Object> args) {
+        try {
+            return provider.execute(tool, args);
+        } catch (Exception e) {
+            return ToolResult.error("Tool execution failed: " + e.getMessage(), e);
         }
-        
-        String content = extractContent(result.content());
-        return ToolResult.success(tool, content);
+    }
+    
+    private static Exception asException(Throwable error) {
+        return error instanceof Exception exception ? exception : new RuntimeException(error);
     }
     
     private String extractContent(List<Content> contentList) {
@@ -332,11 +588,17 @@ public class MCPService {
         return "No text content found";
     }
     
+    // Never blocks: lazy servers that have not started yet contribute their recorded tools
     public List<Tool> getAllAvailableTools() {
-        return servers.values().stream()
-            .filter(Server::isConnected)
-            .flatMap(server -> server.getTools().stream())
-            .toList();
+        return registry.getAllTools();
+    }
+    
+    public Tool findTool(String serverId, String toolName) {
+        return registry.get(serverId, toolName);
+    }
+    
+    public ToolRegistry getToolRegistry() {
+        return registry;
     }
     
     public boolean isServerConnected(String serverId) {
@@ -351,6 +613,8 @@ public class MCPService {
     }
     
     public void close() {
+        closed = true;
+        maintenance.shutdownNow();
         for (String serverId : new ArrayList<>(servers.keySet())) {
             disconnectServer(serverId);
         }
@@ -365,48 +629,20 @@ public class MCPService {
             return false;
         }
         
-        Tool tool = server.getTool(toolName);
+        Tool tool = registry.get(serverId, toolName);
         if (tool == null) {
             return false;
         }
         
-        return validateParameters(tool, args);
-    }
-    
-    @SuppressWarnings("unchecked")
-    private boolean validateParameters(Tool tool, Map<String, Object> args) {
-        Map<String, Object> schema = tool.inputSchema();
-        List<String> requiredParams = (List<String>) schema.getOrDefault("required", Collections.emptyList());
-        Map<String, Object> properties = (Map<String, Object>) schema.getOrDefault("properties", Collections.emptyMap());
-        
-        // Check required parameters
-        for (String param : requiredParams) {
-            if (!args.containsKey(param)) {
-                return false;
-            }
-        }
-        
-        for (Map.Entry<String, Object> entry : args.entrySet()) {
-            String paramName = entry.getKey();
-            Object paramValue = entry.getValue();
-            Map<String, Object> paramSchema = (Map<String, Object>) properties.get(paramName);
-            
-            if (paramSchema != null) {
-                String expectedType = (String) paramSchema.get("type");
-                if (expectedType != null && !isValidType(paramValue, expectedType)) {
-                    return false;
-                }
-            }
-        }
-        
-        return true;
+        return tool.validator().isValid(args);
     }
     
     private void disconnectServer(String serverId) {
         try {
-            McpSyncClient client = clients.remove(serverId);
-            if (client != null) {
-                client.close();
+            registry.remove(serverId);
+            ClientPool pool = clients.remove(serverId);
+            if (pool != null) {
+                pool.close();
             }
             
             Server server = servers.get(serverId);
@@ -418,4 +654,10 @@ public class MCPService {
             System.out.println("Error disconnecting server " + serverId + ": " + e.getMessage());
         }
     }
+    
+    private record StartFailure(int attempts, long retryAt) {}
+    
+    private record ServerConfig(String id, String name, List<String> command) {}
+    
+    private record ToolCallKey(String serverId, String toolName, Map<String, Object> args) {}
 }
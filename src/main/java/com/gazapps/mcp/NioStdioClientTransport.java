@@ -0,0 +1,343 @@
+package com.gazapps.mcp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.modelcontextprotocol.client.transport.ServerParameters;
+import io.modelcontextprotocol.spec.McpClientTransport;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpSchema.JSONRPCMessage;
+import reactor.core.publisher.Mono;
+
+/**
+ * Stdio transport that serializes JSON-RPC frames straight into pooled byte buffers
+ * and writes them to the server's stdin channel, while one dedicated reader thread
+ * splits stdout into lines and hands the messages, in order, to the client session
+ * on one handler thread. Any number of requests can be outstanding on the pipe; the
+ * session matches responses by id. When the server's stdout ends, every request
+ * still waiting is answered with an error instead of running into its timeout.
+ */
+public class NioStdioClientTransport implements McpClientTransport {
+    private static final Logger logger = LoggerFactory.getLogger(NioStdioClientTransport.class);
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int FRAME_BUFFER_SIZE = 4 * 1024;
+    private static final int MAX_POOLED_FRAMES = 32;
+    private static final int MAX_POOLED_FRAME_SIZE = 64 * 1024;
+    private static final int SERVER_ERROR = -32000;
+    private static final AtomicInteger transportIds = new AtomicInteger();
+
+    private final ServerParameters params;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentLinkedQueue<FrameBuffer> framePool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledFrames = new AtomicInteger();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ExecutorService handlers = Executors.newSingleThreadExecutor(Thread.ofVirtual().factory());
+    private final Set<Object> pendingRequests = ConcurrentHashMap.newKeySet();
+
+    private volatile Process process;
+    private volatile WritableByteChannel stdin;
+    private volatile boolean closing;
+    private volatile boolean disconnected;
+
+    public NioStdioClientTransport(ServerParameters params) {
+        this(params, new ObjectMapper());
+    }
+
+    public NioStdioClientTransport(ServerParameters params, ObjectMapper objectMapper) {
+        this.params = params;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> connect(Function<Mono<JSONRPCMessage>, Mono<JSONRPCMessage>> handler) {
+        return Mono.fromRunnable(() -> {
+            List<String> command = new ArrayList<>();
+            command.add(params.getCommand());
+            command.addAll(params.getArgs());
+            ProcessBuilder builder = new ProcessBuilder(command);
+            builder.environment().putAll(params.getEnv());
+            try {
+                process = builder.start();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to start process " + command, e);
+            }
+            stdin = Channels.newChannel(process.getOutputStream());
+
+            String name = "mcp-stdio-" + transportIds.incrementAndGet();
+            Thread.ofPlatform().daemon().name(name + "-reader")
+                .start(() -> readMessages(Channels.newChannel(process.getInputStream()), handler));
+            Thread.ofVirtual().name(name + "-stderr")
+                .start(() -> drainErrors(process.getErrorStream()));
+        });
+    }
+
+    @Override
+    public Mono<Void> sendMessage(JSONRPCMessage message) {
+        return Mono.fromRunnable(() -> writeFrame(message));
+    }
+
+    // A frame is serialized outside the lock; only the channel write is serialized
+    private void writeFrame(JSONRPCMessage message) {
+        if (message instanceof McpSchema.JSONRPCRequest request) {
+            pendingRequests.add(request.id());
+            // Whoever removes the id answers it: either this send or the reader that saw stdout end
+            if (disconnected && pendingRequests.remove(request.id())) {
+                throw new RuntimeException(params.getCommand() + " has closed its output");
+            }
+        }
+        FrameBuffer frame = acquireFrame();
+        try {
+            objectMapper.writeValue(frame, message);
+            frame.write('\n');
+            ByteBuffer bytes = frame.asByteBuffer();
+            writeLock.lock();
+            try {
+                while (bytes.hasRemaining()) {
+                    stdin.write(bytes);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (IOException e) {
+            if (message instanceof McpSchema.JSONRPCRequest request) {
+                pendingRequests.remove(request.id());
+            }
+            if (!closing) {
+                throw new RuntimeException("Failed to send message to " + params.getCommand(), e);
+            }
+        } finally {
+            releaseFrame(frame);
+        }
+    }
+
+    private void readMessages(ReadableByteChannel stdout, Function<Mono<JSONRPCMessage>, Mono<JSONRPCMessage>> handler) {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        byte[] line = new byte[READ_BUFFER_SIZE];
+        int lineLength = 0;
+        try {
+            while (stdout.read(buffer) >= 0) {
+                buffer.flip();
+                byte[] data = buffer.array();
+                int start = buffer.position();
+                int end = buffer.limit();
+                for (int i = start; i < end; i++) {
+                    if (data[i] != '\n') {
+                        continue;
+                    }
+                    int chunk = i - start;
+                    if (lineLength == 0) {
+                        dispatch(data, start, chunk, handler);
+                    } else {
+                        line = append(line, lineLength, data, start, chunk);
+                        dispatch(line, 0, lineLength + chunk, handler);
+                        lineLength = 0;
+                    }
+                    start = i + 1;
+                }
+                // Keep a partial line until its newline arrives in a later read
+                line = append(line, lineLength, data, start, end - start);
+                lineLength += end - start;
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            if (!closing) {
+                logger.warn("Reader for {} stopped: {}", params.getCommand(), e.getMessage());
+            }
+        }
+        failPendingRequests(handler);
+    }
+
+    // No response can arrive any more, so waiting requests get an error response right away
+    private void failPendingRequests(Function<Mono<JSONRPCMessage>, Mono<JSONRPCMessage>> handler) {
+        disconnected = true;
+        if (closing) {
+            return;
+        }
+        logger.warn("{} closed its output, failing {} pending requests", params.getCommand(), pendingRequests.size());
+        McpSchema.JSONRPCError error = new McpSchema.JSONRPCError(
+            SERVER_ERROR, params.getCommand() + " closed its output before responding", null);
+        for (Object id : List.copyOf(pendingRequests)) {
+            if (pendingRequests.remove(id)) {
+                handle(new McpSchema.JSONRPCResponse(McpSchema.JSONRPC_VERSION, id, null, error), handler);
+            }
+        }
+    }
+
+    private void dispatch(byte[] data, int offset, int length, Function<Mono<JSONRPCMessage>, Mono<JSONRPCMessage>> handler) {
+        if (length == 0 || (length == 1 && data[offset] == '\r')) {
+            return;
+        }
+        JSONRPCMessage message;
+        try {
+            message = parse(data, offset, length);
+        } catch (IOException e) {
+            logger.warn("Ignoring malformed message from {}: {}", params.getCommand(), e.getMessage());
+            return;
+        }
+        if (message instanceof McpSchema.JSONRPCResponse response) {
+            pendingRequests.remove(response.id());
+        }
+        handle(message, handler);
+    }
+
+    // The reader keeps reading while the handler thread works through the messages in arrival order
+    private void handle(JSONRPCMessage message, Function<Mono<JSONRPCMessage>, Mono<JSONRPCMessage>> handler) {
+        try {
+            handlers.execute(() -> handler.apply(Mono.just(message))
+                .subscribe(this::writeFrame, error -> logger.warn("Error handling message: {}", error.getMessage())));
+        } catch (RejectedExecutionException e) {
+            if (!closing) {
+                logger.warn("Dropping message from {} after shutdown", params.getCommand());
+            }
+        }
+    }
+
+    // Parses from the raw bytes, without building a String per message
+    private JSONRPCMessage parse(byte[] data, int offset, int length) throws IOException {
+        JsonNode node = objectMapper.readTree(data, offset, length);
+        if (node.has("method")) {
+            return node.has("id")
+                ? objectMapper.treeToValue(node, McpSchema.JSONRPCRequest.class)
+                : objectMapper.treeToValue(node, McpSchema.JSONRPCNotification.class);
+        }
+        if (node.has("result") || node.has("error")) {
+            return objectMapper.treeToValue(node, McpSchema.JSONRPCResponse.class);
+        }
+        throw new IOException("Unknown JSON-RPC message: " + node);
+    }
+
+    private static byte[] append(byte[] target, int targetLength, byte[] source, int offset, int length) {
+        if (targetLength + length > target.length) {
+            target = Arrays.copyOf(target, Math.max(target.length * 2, targetLength + length));
+        }
+        System.arraycopy(source, offset, target, targetLength, length);
+        return target;
+    }
+
+    private void drainErrors(InputStream stderr) {
+        byte[] buffer = new byte[FRAME_BUFFER_SIZE];
+        try {
+            int read;
+            while ((read = stderr.read(buffer)) >= 0) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("[{}] {}", params.getCommand(), new String(buffer, 0, read).trim());
+                }
+            }
+        } catch (IOException e) {
+            // stream closed with the process
+        }
+    }
+
+    private FrameBuffer acquireFrame() {
+        FrameBuffer frame = framePool.poll();
+        if (frame == null) {
+            return new FrameBuffer();
+        }
+        pooledFrames.decrementAndGet();
+        return frame;
+    }
+
+    private void releaseFrame(FrameBuffer frame) {
+        // Oversized buffers from rare huge messages are dropped rather than kept alive
+        if (frame.capacity() > MAX_POOLED_FRAME_SIZE) {
+            return;
+        }
+        if (pooledFrames.incrementAndGet() > MAX_POOLED_FRAMES) {
+            pooledFrames.decrementAndGet();
+            return;
+        }
+        frame.reset();
+        framePool.offer(frame);
+    }
+
+    @Override
+    public Mono<Void> closeGracefully() {
+        return Mono.fromRunnable(() -> {
+            closing = true;
+            handlers.shutdown();
+            Process current = process;
+            if (current == null) {
+                return;
+            }
+            try {
+                stdin.close();
+            } catch (IOException e) {
+                // the process may already be gone
+            }
+            try {
+                if (!current.waitFor(2, TimeUnit.SECONDS)) {
+                    current.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                current.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    @Override
+    public <T> T unmarshalFrom(Object data, TypeReference<T> typeRef) {
+        return objectMapper.convertValue(data, typeRef);
+    }
+
+    private static class FrameBuffer extends OutputStream {
+        private byte[] bytes = new byte[FRAME_BUFFER_SIZE];
+        private int size;
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(size + 1);
+            bytes[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] source, int offset, int length) {
+            ensureCapacity(size + length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+
+        ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(bytes, 0, size);
+        }
+
+        int capacity() {
+            return bytes.length;
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        private void ensureCapacity(int needed) {
+            if (needed > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, needed));
+            }
+        }
+    }
+}
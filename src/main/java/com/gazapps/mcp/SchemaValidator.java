@@ -0,0 +1,502 @@
+package com.gazapps.mcp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * JSON-Schema validator compiled once from a tool's input schema.
+ * Covers type, enum, const, properties, required, additionalProperties, items,
+ * numeric and length bounds, pattern, allOf/anyOf/oneOf, local $ref and default.
+ * Valid arguments that need no coercion are returned as the same instance.
+ */
+public final class SchemaValidator {
+    private static final int STRING = 1;
+    private static final int NUMBER = 1 << 1;
+    private static final int INTEGER = 1 << 2;
+    private static final int BOOLEAN = 1 << 3;
+    private static final int OBJECT = 1 << 4;
+    private static final int ARRAY = 1 << 5;
+    private static final int NULL = 1 << 6;
+
+    private static final SchemaValidator PERMISSIVE = new SchemaValidator(new Node());
+
+    private final Node root;
+
+    private SchemaValidator(Node root) {
+        this.root = root;
+    }
+
+    public static SchemaValidator compile(Map<String, Object> schema) {
+        if (schema == null || schema.isEmpty()) {
+            return PERMISSIVE;
+        }
+        Map<String, Node> definitions = new HashMap<>();
+        compileDefinitions(schema.get("$defs"), definitions);
+        compileDefinitions(schema.get("definitions"), definitions);
+        Node root = compileNode(schema, definitions);
+        definitions.put("#", root);
+        return new SchemaValidator(root);
+    }
+
+    /**
+     * Validates the arguments and applies string coercion and defaults.
+     * Returns {@code args} itself when nothing had to change.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> coerce(Map<String, Object> args) {
+        Object result = root.apply(args != null ? args : Map.of());
+        if (!(result instanceof Map)) {
+            throw new SchemaViolation("arguments must be an object");
+        }
+        return (Map<String, Object>) result;
+    }
+
+    public boolean isValid(Map<String, Object> args) {
+        try {
+            coerce(args);
+            return true;
+        } catch (SchemaViolation e) {
+            return false;
+        }
+    }
+
+    private static void compileDefinitions(Object defs, Map<String, Node> definitions) {
+        if (defs instanceof Map<?, ?> map) {
+            map.forEach((name, schema) -> definitions.put(String.valueOf(name), compileNode(schema, definitions)));
+        }
+    }
+
+    private static Node compileNode(Object schema, Map<String, Node> definitions) {
+        Node node = new Node();
+        if (Boolean.FALSE.equals(schema)) {
+            node.never = true;
+            return node;
+        }
+        if (!(schema instanceof Map<?, ?> map)) {
+            return node;
+        }
+
+        if (map.get("$ref") instanceof String ref) {
+            node.ref = ref.equals("#") ? "#" : ref.substring(ref.lastIndexOf('/') + 1);
+            node.definitions = definitions;
+        }
+
+        Object type = map.get("type");
+        if (type instanceof String name) {
+            node.types = typeBit(name);
+        } else if (type instanceof List<?> names) {
+            for (Object name : names) {
+                node.types |= typeBit(String.valueOf(name));
+            }
+        }
+        if (type != null) {
+            node.typeDescription = type instanceof List<?> names
+                ? String.join(" or ", names.stream().map(String::valueOf).toList())
+                : String.valueOf(type);
+        }
+
+        if (map.get("enum") instanceof List<?> values) {
+            node.enumValues = values.toArray();
+        }
+        if (map.containsKey("const")) {
+            node.enumValues = new Object[] { map.get("const") };
+        }
+        if (map.containsKey("default")) {
+            node.hasDefault = true;
+            node.defaultValue = map.get("default");
+        }
+
+        node.minimum = number(map.get("minimum"), Double.NEGATIVE_INFINITY);
+        node.maximum = number(map.get("maximum"), Double.POSITIVE_INFINITY);
+        node.exclusiveMinimum = number(map.get("exclusiveMinimum"), Double.NEGATIVE_INFINITY);
+        node.exclusiveMaximum = number(map.get("exclusiveMaximum"), Double.POSITIVE_INFINITY);
+        node.minLength = (int) number(map.get("minLength"), 0);
+        node.maxLength = (int) number(map.get("maxLength"), Integer.MAX_VALUE);
+        node.minItems = (int) number(map.get("minItems"), 0);
+        node.maxItems = (int) number(map.get("maxItems"), Integer.MAX_VALUE);
+        if (map.get("pattern") instanceof String pattern) {
+            try {
+                node.pattern = Pattern.compile(pattern);
+            } catch (PatternSyntaxException e) {
+                System.err.println("Ignoring invalid schema pattern " + pattern + ": " + e.getMessage());
+            }
+        }
+
+        if (map.get("properties") instanceof Map<?, ?> properties) {
+            node.propertyNames = new String[properties.size()];
+            node.propertyNodes = new Node[properties.size()];
+            node.propertyIndex = new HashMap<>();
+            int i = 0;
+            for (Map.Entry<?, ?> property : properties.entrySet()) {
+                node.propertyNames[i] = String.valueOf(property.getKey());
+                node.propertyNodes[i] = compileNode(property.getValue(), definitions);
+                node.propertyIndex.put(node.propertyNames[i], node.propertyNodes[i]);
+                i++;
+            }
+        }
+        if (map.get("required") instanceof List<?> required) {
+            node.required = required.stream().map(String::valueOf).toArray(String[]::new);
+        }
+        Object additional = map.get("additionalProperties");
+        if (Boolean.FALSE.equals(additional)) {
+            node.additionalAllowed = false;
+        } else if (additional instanceof Map) {
+            node.additional = compileNode(additional, definitions);
+        }
+
+        if (map.get("items") instanceof Map<?, ?> items) {
+            node.items = compileNode(items, definitions);
+        }
+
+        node.allOf = compileAll(map.get("allOf"), definitions);
+        node.anyOf = compileAll(map.get("anyOf"), definitions);
+        node.oneOf = compileAll(map.get("oneOf"), definitions);
+        return node;
+    }
+
+    private static Node[] compileAll(Object schemas, Map<String, Node> definitions) {
+        if (!(schemas instanceof List<?> list) || list.isEmpty()) {
+            return null;
+        }
+        return list.stream().map(schema -> compileNode(schema, definitions)).toArray(Node[]::new);
+    }
+
+    private static int typeBit(String type) {
+        return switch (type) {
+            case "string" -> STRING;
+            case "number" -> NUMBER;
+            case "integer" -> INTEGER;
+            case "boolean" -> BOOLEAN;
+            case "object" -> OBJECT;
+            case "array" -> ARRAY;
+            case "null" -> NULL;
+            default -> 0;
+        };
+    }
+
+    private static double number(Object value, double fallback) {
+        return value instanceof Number number ? number.doubleValue() : fallback;
+    }
+
+    private static final class Node {
+        private boolean never;
+        private String ref;
+        private Map<String, Node> definitions;
+        private int types;
+        private String typeDescription;
+        private Object[] enumValues;
+        private boolean hasDefault;
+        private Object defaultValue;
+        private double minimum = Double.NEGATIVE_INFINITY;
+        private double maximum = Double.POSITIVE_INFINITY;
+        private double exclusiveMinimum = Double.NEGATIVE_INFINITY;
+        private double exclusiveMaximum = Double.POSITIVE_INFINITY;
+        private int minLength;
+        private int maxLength = Integer.MAX_VALUE;
+        private int minItems;
+        private int maxItems = Integer.MAX_VALUE;
+        private Pattern pattern;
+        private String[] propertyNames = new String[0];
+        private Node[] propertyNodes = new Node[0];
+        private Map<String, Node> propertyIndex = Map.of();
+        private String[] required = new String[0];
+        private boolean additionalAllowed = true;
+        private Node additional;
+        private Node items;
+        private Node[] allOf;
+        private Node[] anyOf;
+        private Node[] oneOf;
+
+        Object apply(Object value) {
+            if (never) {
+                throw new SchemaViolation("is not allowed");
+            }
+            Object result = value;
+            if (ref != null) {
+                Node target = definitions.get(ref);
+                if (target != null) {
+                    result = target.apply(result);
+                }
+            }
+            result = coerceType(result);
+            checkEnum(result);
+
+            if (result instanceof Number number) {
+                checkBounds(number.doubleValue());
+            } else if (result instanceof String string) {
+                checkString(string);
+            } else if (result instanceof Map<?, ?> map) {
+                result = applyObject(map);
+            } else if (result instanceof List<?> list) {
+                result = applyArray(list);
+            }
+
+            if (allOf != null) {
+                for (Node node : allOf) {
+                    result = node.apply(result);
+                }
+            }
+            if (anyOf != null) {
+                result = applyAnyOf(result);
+            }
+            if (oneOf != null) {
+                result = applyOneOf(result);
+            }
+            return result;
+        }
+
+        // Strings are parsed at most once, and only when the schema rules out a string
+        private Object coerceType(Object value) {
+            if (types == 0) {
+                return value;
+            }
+            if (value == null) {
+                if ((types & NULL) != 0) {
+                    return null;
+                }
+                throw new SchemaViolation("expected " + typeDescription);
+            }
+            if (value instanceof String string) {
+                if ((types & STRING) != 0) {
+                    return value;
+                }
+                if ((types & (INTEGER | NUMBER)) != 0) {
+                    try {
+                        double parsed = Double.parseDouble(string);
+                        if ((types & NUMBER) != 0) {
+                            return parsed;
+                        }
+                        if (isIntegral(parsed)) {
+                            return (long) parsed;
+                        }
+                    } catch (NumberFormatException e) {
+                        // fall through to the boolean check and the conversion error
+                    }
+                }
+                if ((types & BOOLEAN) != 0) {
+                    if ("true".equalsIgnoreCase(string)) {
+                        return Boolean.TRUE;
+                    }
+                    if ("false".equalsIgnoreCase(string)) {
+                        return Boolean.FALSE;
+                    }
+                }
+                throw new SchemaViolation("cannot convert '" + string + "' to " + typeDescription);
+            }
+            if (value instanceof Number number) {
+                if ((types & NUMBER) != 0) {
+                    return value;
+                }
+                if ((types & INTEGER) != 0 && isIntegral(number)) {
+                    return value;
+                }
+            } else if (value instanceof Boolean) {
+                if ((types & BOOLEAN) != 0) {
+                    return value;
+                }
+            } else if (value instanceof Map) {
+                if ((types & OBJECT) != 0) {
+                    return value;
+                }
+            } else if (value instanceof List) {
+                if ((types & ARRAY) != 0) {
+                    return value;
+                }
+            }
+            throw new SchemaViolation("expected " + typeDescription);
+        }
+
+        private void checkEnum(Object value) {
+            if (enumValues == null) {
+                return;
+            }
+            for (Object allowed : enumValues) {
+                if (sameValue(allowed, value)) {
+                    return;
+                }
+            }
+            throw new SchemaViolation("must be one of " + Arrays.toString(enumValues));
+        }
+
+        private void checkBounds(double value) {
+            if (value < minimum || value > maximum || value <= exclusiveMinimum || value >= exclusiveMaximum) {
+                throw new SchemaViolation("value " + value + " is out of range");
+            }
+        }
+
+        private void checkString(String value) {
+            int length = value.codePointCount(0, value.length());
+            if (length < minLength || length > maxLength) {
+                throw new SchemaViolation("length " + length + " is out of range");
+            }
+            if (pattern != null && !pattern.matcher(value).find()) {
+                throw new SchemaViolation("does not match pattern " + pattern.pattern());
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object applyObject(Map<?, ?> map) {
+            for (String name : required) {
+                if (!map.containsKey(name)) {
+                    throw new SchemaViolation("required parameter is missing").at(name);
+                }
+            }
+
+            Map<String, Object> copy = null;
+            int matched = 0;
+            for (int i = 0; i < propertyNames.length; i++) {
+                String name = propertyNames[i];
+                Object value = map.get(name);
+                if (value == null && !map.containsKey(name)) {
+                    if (propertyNodes[i].hasDefault) {
+                        copy = copy != null ? copy : new HashMap<>((Map<String, Object>) map);
+                        copy.put(name, propertyNodes[i].defaultValue);
+                    }
+                    continue;
+                }
+                matched++;
+                Object applied;
+                try {
+                    applied = propertyNodes[i].apply(value);
+                } catch (SchemaViolation e) {
+                    throw e.at(name);
+                }
+                if (applied != value) {
+                    copy = copy != null ? copy : new HashMap<>((Map<String, Object>) map);
+                    copy.put(name, applied);
+                }
+            }
+
+            // Only walk the keys when some of them are not declared properties
+            if (map.size() > matched && (!additionalAllowed || additional != null)) {
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    String name = String.valueOf(entry.getKey());
+                    if (propertyIndex.containsKey(name)) {
+                        continue;
+                    }
+                    if (!additionalAllowed) {
+                        throw new SchemaViolation("unexpected parameter").at(name);
+                    }
+                    Object applied;
+                    try {
+                        applied = additional.apply(entry.getValue());
+                    } catch (SchemaViolation e) {
+                        throw e.at(name);
+                    }
+                    if (applied != entry.getValue()) {
+                        copy = copy != null ? copy : new HashMap<>((Map<String, Object>) map);
+                        copy.put(name, applied);
+                    }
+                }
+            }
+            return copy != null ? copy : map;
+        }
+
+        private Object applyArray(List<?> list) {
+            if (list.size() < minItems || list.size() > maxItems) {
+                throw new SchemaViolation("expected between " + minItems + " and " + maxItems + " items");
+            }
+            if (items == null) {
+                return list;
+            }
+            List<Object> copy = null;
+            for (int i = 0; i < list.size(); i++) {
+                Object value = list.get(i);
+                Object applied;
+                try {
+                    applied = items.apply(value);
+                } catch (SchemaViolation e) {
+                    throw e.at("[" + i + "]");
+                }
+                if (applied != value) {
+                    copy = copy != null ? copy : new ArrayList<>(list);
+                    copy.set(i, applied);
+                }
+            }
+            return copy != null ? copy : list;
+        }
+
+        private Object applyAnyOf(Object value) {
+            for (Node node : anyOf) {
+                try {
+                    return node.apply(value);
+                } catch (SchemaViolation e) {
+                    // try the next alternative
+                }
+            }
+            throw new SchemaViolation("does not match any allowed schema");
+        }
+
+        private Object applyOneOf(Object value) {
+            Object result = null;
+            int matches = 0;
+            for (Node node : oneOf) {
+                try {
+                    Object applied = node.apply(value);
+                    if (matches++ == 0) {
+                        result = applied;
+                    }
+                } catch (SchemaViolation e) {
+                    // count only the alternatives that match
+                }
+            }
+            if (matches != 1) {
+                throw new SchemaViolation("must match exactly one schema, matched " + matches);
+            }
+            return result;
+        }
+
+        private static boolean isIntegral(Number number) {
+            if (number instanceof Double || number instanceof Float) {
+                return isIntegral(number.doubleValue());
+            }
+            return true;
+        }
+
+        private static boolean isIntegral(double value) {
+            return !Double.isInfinite(value) && value == Math.rint(value);
+        }
+
+        private static boolean sameValue(Object expected, Object actual) {
+            if (expected instanceof Number left && actual instanceof Number right) {
+                return Double.compare(left.doubleValue(), right.doubleValue()) == 0;
+            }
+            return expected == null ? actual == null : expected.equals(actual);
+        }
+    }
+
+    /** Thrown for invalid arguments; carries the parameter path and skips the stack trace. */
+    public static final class SchemaViolation extends RuntimeException {
+        private final String reason;
+        private final String path;
+
+        SchemaViolation(String reason) {
+            this(reason, "");
+        }
+
+        private SchemaViolation(String reason, String path) {
+            super(null, null, false, false);
+            this.reason = reason;
+            this.path = path;
+        }
+
+        SchemaViolation at(String segment) {
+            String separator = path.isEmpty() || path.startsWith("[") ? "" : ".";
+            return new SchemaViolation(reason, segment + separator + path);
+        }
+
+        public String path() {
+            return path;
+        }
+
+        @Override
+        public String getMessage() {
+            return path.isEmpty() ? "Invalid arguments: " + reason : "Invalid parameter " + path + ": " + reason;
+        }
+    }
+}
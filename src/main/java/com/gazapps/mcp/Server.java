@@ -5,33 +5,47 @@ import java.util.*;
 public class Server {
     private final String id;
     private final String name;
-    private boolean connected;
-    private final List<Tool> tools;
+    private volatile boolean connected;
+    private volatile List<Tool> tools;
+    private volatile Map<String, Tool> toolsByName;
     
     public Server(String id, String name, boolean connected) {
         this.id = id;
         this.name = name;
         this.connected = connected;
-        this.tools = new ArrayList<>();
+        this.tools = List.of();
+        this.toolsByName = Map.of();
     }
     
-    public void addTool(Tool tool) {
-        tools.add(tool);
+    public synchronized void addTool(Tool tool) {
+        List<Tool> updated = new ArrayList<>(tools);
+        updated.add(tool);
+        setTools(updated);
+    }
+    
+    public synchronized void setTools(List<Tool> newTools) {
+        Map<String, Tool> byName = new HashMap<>();
+        for (Tool tool : newTools) {
+            byName.putIfAbsent(tool.name(), tool);
+        }
+        this.tools = List.copyOf(newTools);
+        this.toolsByName = Map.copyOf(byName);
     }
     
     public Tool getTool(String toolName) {
-        return tools.stream()
-            .filter(tool -> tool.name().equals(toolName))
-            .findFirst()
-            .orElse(null);
+        return toolsByName.get(toolName);
     }
     
     public int getToolCount() {
         return tools.size();
     }
     
+    public void setConnected(boolean connected) {
+        this.connected = connected;
+    }
+    
     public String id() { return id; }
     public String name() { return name; }
     public boolean isConnected() { return connected; }
-    public List<Tool> getTools() { return List.copyOf(tools); }
+    public List<Tool> getTools() { return tools; }
 }
@@ -0,0 +1,252 @@
+package com.gazapps.mcp;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Turns {@code npx -y <package>} and {@code uvx <package>} server commands into a direct
+ * call of the installed executable, so a start no longer pays for package resolution.
+ * A command is resolved once, the result is kept in a JSON file and reused until one
+ * of the resolved paths disappears. Commands that cannot be resolved run unchanged.
+ */
+public class ServerLauncher {
+    private static final boolean WINDOWS = System.getProperty("os.name").toLowerCase().contains("win");
+    private static final Logger logger = LoggerFactory.getLogger(ServerLauncher.class);
+    private static final long RESOLVE_TIMEOUT_SECONDS = 120;
+    private static final Executor DRAINER = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Path cacheFile;
+    private final Path installDir;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, List<String>> resolved = new ConcurrentHashMap<>();
+
+    public ServerLauncher() {
+        this(Path.of(System.getProperty("user.home"), ".javachatai"));
+    }
+
+    public ServerLauncher(Path directory) {
+        this.cacheFile = directory.resolve("servers.json");
+        this.installDir = directory.resolve("packages");
+        load();
+    }
+
+    /** Returns the command to start the server with, resolving and caching it on first use. */
+    public List<String> resolve(List<String> command) {
+        String key = String.join(" ", command);
+        List<String> cached = resolved.get(key);
+        if (cached != null && pathsExist(cached)) {
+            return cached;
+        }
+
+        List<String> direct = null;
+        try {
+            direct = switch (command.get(0)) {
+                case "npx" -> resolveNpx(command);
+                case "uvx" -> resolveUvx(command);
+                default -> null;
+            };
+        } catch (IOException e) {
+            logger.warn("Could not resolve {}: {}", key, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (direct == null) {
+            return shellCommand(command);
+        }
+        resolved.put(key, direct);
+        save();
+        return direct;
+    }
+
+    // npx -y <package> args -> node <package bin script> args, installing into our own prefix if needed
+    private List<String> resolveNpx(List<String> command) throws IOException, InterruptedException {
+        int packageIndex = command.get(1).equals("-y") ? 2 : 1;
+        String spec = command.get(packageIndex);
+        String name = packageName(spec);
+        Path node = findOnPath("node");
+        if (node == null) {
+            return null;
+        }
+
+        Path packageDir;
+        String globalRoot = run(List.of("npm", "root", "-g"));
+        if (globalRoot != null && Files.isRegularFile(Path.of(globalRoot, name, "package.json"))) {
+            packageDir = Path.of(globalRoot, name);
+        } else {
+            Path prefix = installDir.resolve(name.replace('/', '_').replace("@", ""));
+            Files.createDirectories(prefix);
+            if (run(List.of("npm", "install", "--prefix", prefix.toString(), "--no-audit", "--no-fund", spec)) == null) {
+                return null;
+            }
+            packageDir = prefix.resolve("node_modules").resolve(name);
+        }
+
+        Path script = binScript(packageDir, name);
+        if (script == null) {
+            return null;
+        }
+        List<String> direct = new ArrayList<>(List.of(node.toString(), script.toString()));
+        direct.addAll(command.subList(packageIndex + 1, command.size()));
+        return direct;
+    }
+
+    // uvx <package> args -> the executable installed by `uv tool install`
+    private List<String> resolveUvx(List<String> command) throws IOException, InterruptedException {
+        String name = command.get(1);
+        Path executable = findOnPath(name);
+        if (executable == null) {
+            if (run(List.of("uv", "tool", "install", name)) == null) {
+                return null;
+            }
+            String binDir = run(List.of("uv", "tool", "dir", "--bin"));
+            if (binDir == null) {
+                return null;
+            }
+            executable = executableIn(Path.of(binDir), name);
+            if (executable == null) {
+                return null;
+            }
+        }
+        List<String> direct = new ArrayList<>(List.of(executable.toString()));
+        direct.addAll(command.subList(2, command.size()));
+        return direct;
+    }
+
+    private Path binScript(Path packageDir, String name) throws IOException {
+        Path manifest = packageDir.resolve("package.json");
+        if (!Files.isRegularFile(manifest)) {
+            return null;
+        }
+        JsonNode bin = objectMapper.readTree(manifest.toFile()).path("bin");
+        String relative = null;
+        if (bin.isTextual()) {
+            relative = bin.asText();
+        } else if (bin.isObject() && bin.size() > 0) {
+            String unscoped = name.substring(name.lastIndexOf('/') + 1);
+            relative = bin.has(unscoped) ? bin.get(unscoped).asText() : bin.elements().next().asText();
+        }
+        return relative == null ? null : packageDir.resolve(relative).normalize();
+    }
+
+    // "@scope/name@1.2.3" -> "@scope/name"
+    private static String packageName(String spec) {
+        int version = spec.lastIndexOf('@');
+        return version > 0 ? spec.substring(0, version) : spec;
+    }
+
+    private static Path findOnPath(String name) {
+        String path = System.getenv("PATH");
+        if (path == null) {
+            return null;
+        }
+        for (String directory : path.split(File.pathSeparator)) {
+            Path executable = executableIn(Path.of(directory), name);
+            if (executable != null) {
+                return executable;
+            }
+        }
+        return null;
+    }
+
+    private static Path executableIn(Path directory, String name) {
+        for (String suffix : WINDOWS ? List.of(".exe", ".cmd", "") : List.of("")) {
+            Path candidate = directory.resolve(name + suffix);
+            if (Files.isRegularFile(candidate) && Files.isExecutable(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static boolean pathsExist(List<String> command) {
+        return command.stream()
+            .filter(part -> part.contains(File.separator))
+            .allMatch(part -> Files.exists(Path.of(part)));
+    }
+
+    // npm and npx are batch files on Windows and need cmd.exe to run
+    private static List<String> shellCommand(List<String> command) {
+        if (!WINDOWS) {
+            return command;
+        }
+        List<String> wrapped = new ArrayList<>(List.of("cmd.exe", "/c"));
+        wrapped.addAll(command);
+        return wrapped;
+    }
+
+    private static String run(List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(shellCommand(command))
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        process.getOutputStream().close();
+        // Output is drained on its own thread, so the timeout applies even while the process keeps stdout open
+        CompletableFuture<byte[]> output = CompletableFuture.supplyAsync(() -> {
+            try {
+                return process.getInputStream().readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, DRAINER);
+        if (!process.waitFor(RESOLVE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            logger.warn("{} did not finish within {} s", String.join(" ", command), RESOLVE_TIMEOUT_SECONDS);
+            process.destroyForcibly();
+            return null;
+        }
+        if (process.exitValue() != 0) {
+            return null;
+        }
+        try {
+            // A child that inherited stdout may still hold it open after the process exited
+            return new String(output.get(RESOLVE_TIMEOUT_SECONDS, TimeUnit.SECONDS), StandardCharsets.UTF_8).trim();
+        } catch (ExecutionException | TimeoutException e) {
+            output.cancel(true);
+            logger.warn("Could not read the output of {}: {}", String.join(" ", command), e.getMessage());
+            return null;
+        }
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(cacheFile)) {
+            return;
+        }
+        try {
+            resolved.putAll(objectMapper.readValue(cacheFile.toFile(), new TypeReference<Map<String, List<String>>>() {}));
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable launcher cache {}: {}", cacheFile, e.getMessage());
+        }
+    }
+
+    private synchronized void save() {
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            Path temp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), resolved);
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn("Could not write launcher cache {}: {}", cacheFile, e.getMessage());
+        }
+    }
+}
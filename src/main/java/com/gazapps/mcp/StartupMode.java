@@ -0,0 +1,7 @@
+package com.gazapps.mcp;
+
+public enum StartupMode {
+    EAGER,
+    BACKGROUND,
+    LAZY
+}
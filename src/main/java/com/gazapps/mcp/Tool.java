@@ -8,16 +8,30 @@ public class Tool {
     private final String description;
     private final String serverId;
     private final Map<String, Object> inputSchema; 
+    private final SchemaValidator validator;
+    private final Map<String, Object> annotations;
 
     public Tool(String name, String description, String serverId, Map<String, Object> inputSchema) {
+        this(name, description, serverId, inputSchema, null);
+    }
+
+    public Tool(String name, String description, String serverId, Map<String, Object> inputSchema,
+                Map<String, Object> annotations) {
         this.name = name;
         this.description = description;
         this.serverId = serverId;
         this.inputSchema = inputSchema != null ? inputSchema : Collections.emptyMap();
+        this.validator = SchemaValidator.compile(this.inputSchema);
+        this.annotations = annotations != null ? annotations : Collections.emptyMap();
     }
 
     public String name() { return name; }
     public String description() { return description; }
     public String serverId() { return serverId; }
     public Map<String, Object> inputSchema() { return inputSchema; }
+    public SchemaValidator validator() { return validator; }
+    public Map<String, Object> annotations() { return annotations; }
+    public boolean hasAnnotations() { return !annotations.isEmpty(); }
+    public boolean isReadOnly() { return Boolean.TRUE.equals(annotations.get("readOnlyHint")); }
+    public boolean isIdempotent() { return isReadOnly() || Boolean.TRUE.equals(annotations.get("idempotentHint")); }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.gazapps.mcp;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tool metadata of every server that has connected at least once, kept in a JSON file.
+ * Lazily started servers offer these tools before their process exists, so the first
+ * call to one of them is what starts the server.
+ */
+public class ToolCatalog {
+    private static final Logger logger = LoggerFactory.getLogger(ToolCatalog.class);
+
+    private final Path file;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, List<Entry>> servers = new ConcurrentHashMap<>();
+
+    public ToolCatalog() {
+        this(Path.of(System.getProperty("user.home"), ".javachatai"));
+    }
+
+    public ToolCatalog(Path directory) {
+        this.file = directory.resolve("tools.json");
+        load();
+    }
+
+    /** The tools last seen for a server, or an empty list if it never connected. */
+    public List<Tool> tools(String serverId) {
+        return servers.getOrDefault(serverId, List.of()).stream()
+            .map(entry -> new Tool(entry.name(), entry.description(), serverId, entry.inputSchema(), entry.annotations()))
+            .toList();
+    }
+
+    public void record(String serverId, List<Tool> tools) {
+        List<Entry> entries = tools.stream()
+            .map(tool -> new Entry(tool.name(), tool.description(), tool.inputSchema(), tool.annotations()))
+            .toList();
+        if (entries.equals(servers.put(serverId, entries))) {
+            return;
+        }
+        save();
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            servers.putAll(objectMapper.readValue(file.toFile(), new TypeReference<Map<String, List<Entry>>>() {}));
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable tool catalog {}: {}", file, e.getMessage());
+        }
+    }
+
+    private synchronized void save() {
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), servers);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn("Could not write tool catalog {}: {}", file, e.getMessage());
+        }
+    }
+
+    public record Entry(String name, String description, Map<String, Object> inputSchema, Map<String, Object> annotations) {}
+}
@@ -0,0 +1,21 @@
+package com.gazapps.mcp;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tools that run inside the JVM instead of behind an MCP server process.
+ * Implementations are discovered with {@link java.util.ServiceLoader}; a provider
+ * whose {@link #serverId()} matches a configured server replaces that server.
+ */
+public interface ToolProvider {
+
+    String serverId();
+
+    String name();
+
+    List<Tool> tools();
+
+    /** Runs a tool from {@link #tools()} with arguments already validated against its schema. */
+    ToolResult execute(Tool tool, Map<String, Object> args) throws Exception;
+}
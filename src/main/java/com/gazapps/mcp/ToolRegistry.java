@@ -0,0 +1,65 @@
+package com.gazapps.mcp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ToolRegistry {
+    private volatile Snapshot snapshot = new Snapshot(0, Map.of(), Map.of(), List.of());
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public Tool get(String serverId, String toolName) {
+        return snapshot.tools().get(new ToolKey(serverId, toolName));
+    }
+
+    public List<Tool> getAllTools() {
+        return snapshot.allTools();
+    }
+
+    public List<Tool> getTools(String serverId) {
+        return snapshot.toolsByServer().getOrDefault(serverId, List.of());
+    }
+
+    public long version() {
+        return snapshot.version();
+    }
+
+    public synchronized void register(String serverId, List<Tool> tools) {
+        Map<String, List<Tool>> byServer = new LinkedHashMap<>(snapshot.toolsByServer());
+        byServer.put(serverId, List.copyOf(tools));
+        publish(byServer);
+    }
+
+    public synchronized void remove(String serverId) {
+        if (!snapshot.toolsByServer().containsKey(serverId)) {
+            return;
+        }
+        Map<String, List<Tool>> byServer = new LinkedHashMap<>(snapshot.toolsByServer());
+        byServer.remove(serverId);
+        publish(byServer);
+    }
+
+    // Readers never lock: every change builds a new immutable snapshot and swaps it in
+    private void publish(Map<String, List<Tool>> byServer) {
+        Map<ToolKey, Tool> tools = new HashMap<>();
+        List<Tool> allTools = new ArrayList<>();
+        for (List<Tool> serverTools : byServer.values()) {
+            for (Tool tool : serverTools) {
+                tools.put(new ToolKey(tool.serverId(), tool.name()), tool);
+                allTools.add(tool);
+            }
+        }
+        snapshot = new Snapshot(snapshot.version() + 1, Map.copyOf(tools),
+            Collections.unmodifiableMap(byServer), List.copyOf(allTools));
+    }
+
+    public record Snapshot(long version, Map<ToolKey, Tool> tools, Map<String, List<Tool>> toolsByServer, List<Tool> allTools) {}
+
+    public record ToolKey(String serverId, String toolName) {}
+}
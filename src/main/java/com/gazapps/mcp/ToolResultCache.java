@@ -0,0 +1,194 @@
+package com.gazapps.mcp;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Caches successful tool results by server, tool and canonicalized arguments.
+ * A tool is cached when it has a configured TTL, or with the default TTL when it is
+ * annotated readOnlyHint. Tools that are neither read-only nor idempotent are never
+ * cached. Results of tools given a file path argument stay valid only while the
+ * file's modification time and size are unchanged.
+ */
+public class ToolResultCache {
+    private static final List<String> PATH_ARGUMENTS = List.of("path", "source", "destination");
+    private static final List<String> PATHS_ARGUMENTS = List.of("paths");
+
+    private final ObjectMapper canonicalMapper = new ObjectMapper()
+        .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    private final long maxBytes;
+    private final Duration defaultTtl;
+    private final Map<String, Duration> toolTtls = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long currentBytes;
+
+    public ToolResultCache(long maxBytes, Duration defaultTtl) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxBytes = maxBytes;
+        this.defaultTtl = defaultTtl;
+    }
+
+    /** Sets the TTL for one tool; {@link Duration#ZERO} disables caching it. */
+    public void setTtl(String serverId, String toolName, Duration ttl) {
+        toolTtls.put(serverId + ":" + toolName, ttl);
+    }
+
+    /** True for tools annotated read-only or given a TTL here, including a zero one. */
+    public boolean isReadOnly(Tool tool) {
+        return tool.isReadOnly() || toolTtls.containsKey(tool.serverId() + ":" + tool.name());
+    }
+
+    public ToolResult lookup(Tool tool, Map<String, Object> args) {
+        if (ttlFor(tool).isZero()) {
+            return null;
+        }
+        String key = keyFor(tool, args);
+        if (key == null) {
+            return null;
+        }
+        synchronized (this) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null && entry.expiresAt() > System.currentTimeMillis()
+                    && entry.files().stream().allMatch(FileStamp::isCurrent)) {
+                hits.incrementAndGet();
+                return ToolResult.success(tool, entry.content());
+            }
+            if (entry != null) {
+                remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void store(Tool tool, Map<String, Object> args, ToolResult result) {
+        Duration ttl = ttlFor(tool);
+        if (ttl.isZero() || !result.success() || result.content() == null) {
+            return;
+        }
+        String key = keyFor(tool, args);
+        if (key == null) {
+            return;
+        }
+        CacheEntry entry = new CacheEntry(result.content(), System.currentTimeMillis() + ttl.toMillis(), stampFiles(args));
+        if (entry.bytes() > maxBytes) {
+            return;
+        }
+        synchronized (this) {
+            remove(key);
+            entries.put(key, entry);
+            currentBytes += entry.bytes();
+
+            Iterator<CacheEntry> eldest = entries.values().iterator();
+            while (currentBytes > maxBytes && eldest.hasNext()) {
+                currentBytes -= eldest.next().bytes();
+                eldest.remove();
+            }
+        }
+    }
+
+    public synchronized void invalidate(String serverId) {
+        String prefix = serverId + ":";
+        Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, CacheEntry> entry = iterator.next();
+            if (entry.getKey().startsWith(prefix)) {
+                currentBytes -= entry.getValue().bytes();
+                iterator.remove();
+            }
+        }
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+
+    public synchronized long getSizeBytes() { return currentBytes; }
+    public synchronized int getEntryCount() { return entries.size(); }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    private Duration ttlFor(Tool tool) {
+        if (!tool.isReadOnly() && !tool.isIdempotent() && tool.hasAnnotations()) {
+            return Duration.ZERO;
+        }
+        Duration configured = toolTtls.get(tool.serverId() + ":" + tool.name());
+        if (configured != null) {
+            return configured;
+        }
+        return tool.isReadOnly() ? defaultTtl : Duration.ZERO;
+    }
+
+    private void remove(String key) {
+        CacheEntry previous = entries.remove(key);
+        if (previous != null) {
+            currentBytes -= previous.bytes();
+        }
+    }
+
+    private String keyFor(Tool tool, Map<String, Object> args) {
+        try {
+            return tool.serverId() + ":" + tool.name() + ":" + canonicalMapper.writeValueAsString(args);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static List<FileStamp> stampFiles(Map<String, Object> args) {
+        List<FileStamp> stamps = new ArrayList<>();
+        for (String name : PATH_ARGUMENTS) {
+            if (args.get(name) instanceof String path) {
+                stamps.add(FileStamp.of(path));
+            }
+        }
+        for (String name : PATHS_ARGUMENTS) {
+            if (args.get(name) instanceof List<?> paths) {
+                paths.forEach(path -> stamps.add(FileStamp.of(String.valueOf(path))));
+            }
+        }
+        return List.copyOf(stamps);
+    }
+
+    private record CacheEntry(String content, long expiresAt, List<FileStamp> files) {
+        int bytes() {
+            return content.length() * Character.BYTES;
+        }
+    }
+
+    // A missing file is stamped too, so creating it later invalidates the entry
+    private record FileStamp(String path, long modifiedAt, long size) {
+        static FileStamp of(String path) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(Path.of(path), BasicFileAttributes.class);
+                return new FileStamp(path, attributes.lastModifiedTime().toMillis(), attributes.size());
+            } catch (IOException | InvalidPathException e) {
+                return new FileStamp(path, -1, -1);
+            }
+        }
+
+        boolean isCurrent() {
+            return equals(of(path));
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.gazapps.mcp.builtin;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gazapps.mcp.Tool;
+import com.gazapps.mcp.ToolProvider;
+import com.gazapps.mcp.ToolResult;
+
+/**
+ * In-JVM replacement for @modelcontextprotocol/server-filesystem rooted at the working
+ * directory. Tool names, arguments and output follow that server, except read_media_file,
+ * which needs image content; every path must resolve inside the root.
+ */
+public class FileSystemToolProvider implements ToolProvider {
+    private static final String SERVER_ID = "filesystem-server";
+    private static final int MAX_SEARCH_RESULTS = 500;
+    private static final int MAX_TREE_DEPTH = 20;
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final Map<String, Object> PATH_SCHEMA = Map.of("type", "object",
+        "properties", Map.of("path", Map.of("type", "string")),
+        "required", List.of("path"));
+    private static final Map<String, Object> READ_ONLY = Map.of("readOnlyHint", true);
+
+    private final Path root;
+    private final Path realRoot;
+    private final List<Tool> tools = List.of(
+        new Tool("read_file", "Read the complete contents of a file as text", SERVER_ID, PATH_SCHEMA, READ_ONLY),
+        new Tool("read_text_file", "Read a file as text, optionally only its first (head) or last (tail) lines", SERVER_ID,
+            Map.of("type", "object",
+                "properties", Map.of("path", Map.of("type", "string"),
+                    "head", Map.of("type", "integer", "minimum", 0),
+                    "tail", Map.of("type", "integer", "minimum", 0)),
+                "required", List.of("path")),
+            READ_ONLY),
+        new Tool("read_multiple_files", "Read the contents of multiple files at once", SERVER_ID,
+            Map.of("type", "object",
+                "properties", Map.of("paths", Map.of("type", "array", "items", Map.of("type", "string"))),
+                "required", List.of("paths")),
+            READ_ONLY),
+        new Tool("write_file", "Create a new file or completely overwrite an existing file with new content", SERVER_ID,
+            Map.of("type", "object",
+                "properties", Map.of("path", Map.of("type", "string"), "content", Map.of("type", "string")),
+                "required", List.of("path", "content")),
+            Map.of("readOnlyHint", false, "idempotentHint", true, "destructiveHint", true)),
+        new Tool("edit_file", "Replace exact text in a file; returns a diff of the changes and writes nothing when dryRun is set",
+            SERVER_ID,
+            Map.of("type", "object",
+                "properties", Map.of("path", Map.of("type", "string"),
+                    "edits", Map.of("type", "array", "items", Map.of("type", "object",
+                        "properties", Map.of("oldText", Map.of("type", "string"), "newText", Map.of("type", "string")),
+                        "required", List.of("oldText", "newText"))),
+                    "dryRun", Map.of("type", "boolean", "default", false)),
+                "required", List.of("path", "edits")),
+            Map.of("readOnlyHint", false, "idempotentHint", false, "destructiveHint", true)),
+        new Tool("create_directory", "Create a new directory, including parent directories", SERVER_ID, PATH_SCHEMA,
+            Map.of("readOnlyHint", false, "idempotentHint", true)),
+        new Tool("list_directory", "Get a listing of all files and directories in a specified path", SERVER_ID,
+            PATH_SCHEMA, READ_ONLY),
+        new Tool("list_directory_with_sizes", "Get a listing of a directory with the size of each file", SERVER_ID,
+            Map.of("type", "object",
+                "properties", Map.of("path", Map.of("type", "string"),
+                    "sortBy", Map.of("type", "string", "enum", List.of("name", "size"), "default", "name")),
+                "required", List.of("path")),
+            READ_ONLY),
+        new Tool("directory_tree", "Get a recursive tree of files and directories as JSON", SERVER_ID, PATH_SCHEMA,
+            READ_ONLY),
+        new Tool("move_file", "Move or rename files and directories", SERVER_ID,
+            Map.of("type", "object",
+                "properties", Map.of("source", Map.of("type", "string"), "destination", Map.of("type", "string")),
+                "required", List.of("source", "destination")),
+            Map.of("readOnlyHint", false, "idempotentHint", false)),
+        new Tool("search_files", "Recursively search for files and directories whose name matches a pattern", SERVER_ID,
+            Map.of("type", "object",
+                "properties", Map.of("path", Map.of("type", "string"), "pattern", Map.of("type", "string")),
+                "required", List.of("path", "pattern")),
+            READ_ONLY),
+        new Tool("get_file_info", "Retrieve metadata about a file or directory", SERVER_ID, PATH_SCHEMA, READ_ONLY),
+        new Tool("list_allowed_directories", "Returns the list of directories this server is allowed to access",
+            SERVER_ID, Map.of("type", "object", "properties", Map.of()), READ_ONLY)
+    );
+
+    public FileSystemToolProvider() {
+        this(Path.of(""));
+    }
+
+    public FileSystemToolProvider(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        try {
+            this.realRoot = this.root.toRealPath();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Filesystem root is not accessible: " + this.root, e);
+        }
+    }
+
+    @Override
+    public String serverId() {
+        return SERVER_ID;
+    }
+
+    @Override
+    public String name() {
+        return "Filesystem";
+    }
+
+    @Override
+    public List<Tool> tools() {
+        return tools;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ToolResult execute(Tool tool, Map<String, Object> args) {
+        try {
+            String content = switch (tool.name()) {
+                case "read_file" -> Files.readString(resolve(args.get("path")));
+                case "read_text_file" -> readText(resolve(args.get("path")), (Number) args.get("head"), (Number) args.get("tail"));
+                case "read_multiple_files" -> readMultiple((List<Object>) args.get("paths"));
+                case "write_file" -> {
+                    Path file = resolve(args.get("path"));
+                    Files.writeString(file, String.valueOf(args.get("content")));
+                    yield "Successfully wrote to " + args.get("path");
+                }
+                case "edit_file" -> editFile(resolve(args.get("path")), (List<Object>) args.get("edits"),
+                    Boolean.TRUE.equals(args.get("dryRun")));
+                case "create_directory" -> {
+                    Files.createDirectories(resolve(args.get("path")));
+                    yield "Successfully created directory " + args.get("path");
+                }
+                case "list_directory" -> listDirectory(resolve(args.get("path")));
+                case "list_directory_with_sizes" -> listWithSizes(resolve(args.get("path")), "size".equals(args.get("sortBy")));
+                case "directory_tree" -> objectMapper.writerWithDefaultPrettyPrinter()
+                    .writeValueAsString(tree(resolve(args.get("path")), 0));
+                case "move_file" -> {
+                    Files.move(resolve(args.get("source")), resolve(args.get("destination")));
+                    yield "Successfully moved " + args.get("source") + " to " + args.get("destination");
+                }
+                case "search_files" -> searchFiles(resolve(args.get("path")), String.valueOf(args.get("pattern")));
+                case "get_file_info" -> fileInfo(resolve(args.get("path")));
+                case "list_allowed_directories" -> "Allowed directories:\n" + root;
+                default -> throw new IllegalArgumentException("Unknown tool: " + tool.name());
+            };
+            return ToolResult.success(tool, content);
+        } catch (IOException | IllegalArgumentException | SecurityException | ClassCastException e) {
+            return ToolResult.error(tool.name() + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    // Relative and absolute paths alike must stay inside the root, also after following symlinks.
+    // A path that does not exist yet is checked through its deepest existing ancestor, so a new
+    // file below a symlinked directory cannot land outside the root either.
+    private Path resolve(Object path) throws IOException {
+        Path resolved = root.resolve(String.valueOf(path)).normalize();
+        if (!resolved.startsWith(root)) {
+            throw new SecurityException("Access denied - path outside allowed directories: " + path);
+        }
+        Path existing = resolved;
+        while (!Files.exists(existing, LinkOption.NOFOLLOW_LINKS)) {
+            existing = existing.getParent();
+        }
+        // A dangling symlink fails here instead of letting a write create its target
+        Path real = existing.toRealPath().resolve(existing.relativize(resolved));
+        if (!real.startsWith(realRoot)) {
+            throw new SecurityException("Access denied - path outside allowed directories: " + path);
+        }
+        return resolved;
+    }
+
+    private String readMultiple(List<Object> paths) {
+        return paths.stream()
+            .map(path -> {
+                try {
+                    return path + ":\n" + Files.readString(resolve(path));
+                } catch (IOException | SecurityException e) {
+                    return path + ": Error - " + e.getMessage();
+                }
+            })
+            .collect(Collectors.joining("\n---\n"));
+    }
+
+    private static String readText(Path file, Number head, Number tail) throws IOException {
+        if (head != null && tail != null) {
+            throw new IllegalArgumentException("Cannot specify both head and tail");
+        }
+        if (head == null && tail == null) {
+            return Files.readString(file);
+        }
+        List<String> lines = Files.readAllLines(file);
+        int count = Math.min(lines.size(), (head != null ? head : tail).intValue());
+        return String.join("\n", head != null ? lines.subList(0, count) : lines.subList(lines.size() - count, lines.size()));
+    }
+
+    // Every edit must match exactly once the previous edits are applied; nothing is written otherwise
+    @SuppressWarnings("unchecked")
+    private static String editFile(Path file, List<Object> edits, boolean dryRun) throws IOException {
+        String content = Files.readString(file);
+        StringBuilder diff = new StringBuilder("--- ").append(file.getFileName()).append("\n+++ ")
+            .append(file.getFileName()).append("\n");
+        for (Object item : edits) {
+            Map<String, Object> edit = (Map<String, Object>) item;
+            String oldText = String.valueOf(edit.get("oldText"));
+            String newText = String.valueOf(edit.get("newText"));
+            int at = content.indexOf(oldText);
+            if (oldText.isEmpty() || at < 0) {
+                throw new IllegalArgumentException("Could not find exact match for edit:\n" + oldText);
+            }
+            long lineNumber = content.substring(0, at).chars().filter(c -> c == '\n').count() + 1;
+            content = content.substring(0, at) + newText + content.substring(at + oldText.length());
+            diff.append("@@ line ").append(lineNumber).append(" @@\n");
+            oldText.lines().forEach(line -> diff.append('-').append(line).append('\n'));
+            newText.lines().forEach(line -> diff.append('+').append(line).append('\n'));
+        }
+        if (!dryRun) {
+            Files.writeString(file, content);
+        }
+        return diff.toString();
+    }
+
+    private static String listWithSizes(Path directory, boolean bySize) throws IOException {
+        List<Path> entries;
+        try (Stream<Path> listing = Files.list(directory)) {
+            entries = listing.sorted().collect(Collectors.toList());
+        }
+        if (bySize) {
+            entries.sort(Comparator.comparingLong(FileSystemToolProvider::sizeOf).reversed());
+        }
+        long files = entries.stream().filter(entry -> !Files.isDirectory(entry)).count();
+        long total = entries.stream().filter(entry -> !Files.isDirectory(entry)).mapToLong(FileSystemToolProvider::sizeOf).sum();
+        String lines = entries.stream()
+            .map(entry -> Files.isDirectory(entry)
+                ? "[DIR]  " + entry.getFileName()
+                : String.format("[FILE] %-30s %10d bytes", entry.getFileName(), sizeOf(entry)))
+            .collect(Collectors.joining("\n"));
+        return lines + String.format("%n%nTotal: %d files, %d directories%nCombined size: %d bytes",
+            files, entries.size() - files, total);
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.isDirectory(path) ? 0 : Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // Symlinked directories are listed but not followed, so a link cannot lead the walk out of the root
+    private static List<Map<String, Object>> tree(Path directory, int depth) throws IOException {
+        List<Map<String, Object>> nodes = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path entry : listing.sorted().toList()) {
+                Map<String, Object> node = new LinkedHashMap<>();
+                node.put("name", entry.getFileName().toString());
+                if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                    node.put("type", "directory");
+                    node.put("children", depth < MAX_TREE_DEPTH ? tree(entry, depth + 1) : List.of());
+                } else {
+                    node.put("type", "file");
+                }
+                nodes.add(node);
+            }
+        }
+        return nodes;
+    }
+
+    private static String listDirectory(Path directory) throws IOException {
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries.sorted()
+                .map(entry -> (Files.isDirectory(entry) ? "[DIR] " : "[FILE] ") + entry.getFileName())
+                .collect(Collectors.joining("\n"));
+        }
+    }
+
+    private String searchFiles(Path directory, String pattern) throws IOException {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + (pattern.contains("*") ? pattern : "*" + pattern + "*"));
+        try (Stream<Path> entries = Files.walk(directory)) {
+            String matches = entries
+                .filter(entry -> !entry.equals(directory) && matcher.matches(entry.getFileName()))
+                .limit(MAX_SEARCH_RESULTS)
+                .map(Path::toString)
+                .collect(Collectors.joining("\n"));
+            return matches.isEmpty() ? "No matches found" : matches;
+        }
+    }
+
+    private static String fileInfo(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return String.join("\n",
+            "size: " + attributes.size(),
+            "created: " + attributes.creationTime(),
+            "modified: " + attributes.lastModifiedTime(),
+            "accessed: " + attributes.lastAccessTime(),
+            "isDirectory: " + attributes.isDirectory(),
+            "isFile: " + attributes.isRegularFile(),
+            "permissions: " + (Files.isReadable(path) ? "r" : "-") + (Files.isWritable(path) ? "w" : "-")
+                + (Files.isExecutable(path) ? "x" : "-"));
+    }
+}
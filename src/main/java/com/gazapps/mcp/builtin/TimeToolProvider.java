@@ -0,0 +1,109 @@
+package com.gazapps.mcp.builtin;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gazapps.mcp.Tool;
+import com.gazapps.mcp.ToolProvider;
+import com.gazapps.mcp.ToolResult;
+
+/** In-JVM replacement for mcp-server-time, with the same tool names, arguments and JSON output. */
+public class TimeToolProvider implements ToolProvider {
+    private static final String SERVER_ID = "time-server";
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<Tool> tools = List.of(
+        new Tool("get_current_time", "Get current time in a specific timezone", SERVER_ID,
+            Map.of("type", "object",
+                "properties", Map.of("timezone", Map.of("type", "string",
+                    "description", "IANA timezone name (e.g., 'America/New_York', 'Europe/London')")),
+                "required", List.of("timezone")),
+            Map.of("readOnlyHint", true)),
+        new Tool("convert_time", "Convert time between timezones", SERVER_ID,
+            Map.of("type", "object",
+                "properties", Map.of(
+                    "source_timezone", Map.of("type", "string", "description", "Source IANA timezone name"),
+                    "time", Map.of("type", "string", "description", "Time to convert in 24-hour format (HH:MM)"),
+                    "target_timezone", Map.of("type", "string", "description", "Target IANA timezone name")),
+                "required", List.of("source_timezone", "time", "target_timezone")),
+            Map.of("readOnlyHint", true))
+    );
+
+    @Override
+    public String serverId() {
+        return SERVER_ID;
+    }
+
+    @Override
+    public String name() {
+        return "Time";
+    }
+
+    @Override
+    public List<Tool> tools() {
+        return tools;
+    }
+
+    @Override
+    public ToolResult execute(Tool tool, Map<String, Object> args) throws JsonProcessingException {
+        try {
+            return switch (tool.name()) {
+                case "get_current_time" -> ToolResult.success(tool, objectMapper.writeValueAsString(
+                    describe(ZonedDateTime.now(zone(args.get("timezone"))))));
+                case "convert_time" -> ToolResult.success(tool, objectMapper.writeValueAsString(convert(args)));
+                default -> ToolResult.error("Unknown tool: " + tool.name());
+            };
+        } catch (DateTimeException e) {
+            return ToolResult.error(e.getMessage(), e);
+        }
+    }
+
+    private static Map<String, Object> convert(Map<String, Object> args) {
+        ZoneId source = zone(args.get("source_timezone"));
+        ZoneId target = zone(args.get("target_timezone"));
+        LocalTime time;
+        try {
+            time = LocalTime.parse(String.valueOf(args.get("time")), DateTimeFormatter.ofPattern("H:mm"));
+        } catch (DateTimeParseException e) {
+            throw new DateTimeException("Invalid time format. Expected HH:MM [24-hour format]");
+        }
+
+        ZonedDateTime sourceTime = ZonedDateTime.of(LocalDate.now(source), time, source);
+        ZonedDateTime targetTime = sourceTime.withZoneSameInstant(target);
+        Duration offset = Duration.ofSeconds(targetTime.getOffset().getTotalSeconds() - sourceTime.getOffset().getTotalSeconds());
+        double hours = offset.toMinutes() / 60.0;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("source", describe(sourceTime));
+        result.put("target", describe(targetTime));
+        result.put("time_difference", (hours >= 0 ? "+" : "") + hours + "h");
+        return result;
+    }
+
+    private static Map<String, Object> describe(ZonedDateTime time) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("timezone", time.getZone().getId());
+        result.put("datetime", time.withNano(0).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+        result.put("is_dst", time.getZone().getRules().isDaylightSavings(time.toInstant()));
+        return result;
+    }
+
+    private static ZoneId zone(Object name) {
+        try {
+            return ZoneId.of(String.valueOf(name));
+        } catch (DateTimeException e) {
+            throw new DateTimeException("Invalid timezone: " + name);
+        }
+    }
+}
@@ -4,13 +4,16 @@ import java.util.Scanner;
 
 import com.gazapps.inference.MultiToolOrchestrator;
 import com.gazapps.inference.SimpleInference;
+import com.gazapps.inference.StageClients;
 import com.gazapps.llm.LLMClient;
 import com.gazapps.mcp.MCPService;
 import com.gazapps.mcp.Server;
 import com.gazapps.mcp.Tool;
+import com.gazapps.mcp.ToolResultCache;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ChatInterface {
     private final SimpleInference inference; 
@@ -25,8 +28,12 @@ public class ChatInterface {
     }
     
     public ChatInterface(MCPService mcpService, LLMClient llmClient, MultiToolOrchestrator orchestrator) {
+        this(mcpService, StageClients.of(llmClient), orchestrator);
+    }
+    
+    public ChatInterface(MCPService mcpService, StageClients clients, MultiToolOrchestrator orchestrator) {
         this.mcpService = mcpService;
-        this.inference = new SimpleInference(mcpService, llmClient);
+        this.inference = new SimpleInference(mcpService, clients);
         this.inference.setOrchestrator(orchestrator); 
         this.scanner = new Scanner(System.in);
     }
@@ -55,12 +62,17 @@ public class ChatInterface {
         
         System.out.println("🤖 AI Assistant Ready!");
         
-        if (servers.isEmpty()) {
+        long pending = mcpService.getPendingServerCount();
+        if (servers.isEmpty() && pending == 0) {
             System.out.println("⚠️ No external tools available - I can still answer questions directly.");
-        } else {
+        } else if (!servers.isEmpty()) {
             System.out.printf("✅ Connected to %d servers with %d tools.%n", servers.size(), tools.size());
         }
         
+        if (pending > 0) {
+            System.out.printf("⏳ %d servers still starting in the background.%n", pending);
+        }
+        
         try {
             inference.processQuery("Hi"); 
             System.out.println("✅ AI service is working.");
@@ -100,8 +112,25 @@ public class ChatInterface {
         }
         
         try {
-            String response = inference.processQuery(input);
-            System.out.println("🤖 " + response + "\n");
+            AtomicBoolean streaming = new AtomicBoolean(false);
+            String response = inference.processQuery(input, token -> {
+                if (streaming.compareAndSet(false, true)) {
+                    System.out.print("🤖 ");
+                }
+                System.out.print(token);
+                System.out.flush();
+            });
+            
+            if (streaming.get()) {
+                System.out.println();
+                // A stream that fails midway still returns normally, with the error as the response
+                if (response.startsWith("Error:")) {
+                    System.out.println("🤖 " + response);
+                }
+            } else {
+                System.out.println("🤖 " + response);
+            }
+            System.out.println("   (" + inference.getLastTurnMetrics() + ")\n");
             
         } catch (Exception e) {
             String error = e.getMessage().toLowerCase();
@@ -119,6 +148,11 @@ public class ChatInterface {
     }
     
     private void cleanup() {
+        ToolResultCache cache = mcpService.getResultCache();
+        if (cache.getHits() + cache.getMisses() > 0) {
+            System.out.printf("Tool cache: %d hits, %d misses (%.0f%% hit rate)%n",
+                cache.getHits(), cache.getMisses(), cache.getHitRate() * 100);
+        }
         scanner.close();
         mcpService.close();
     }
@@ -0,0 +1,61 @@
+package com.gazapps.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Helpers for CompletableFuture chains. Cancelling a future returned by thenCompose,
+ * thenApply or whenComplete does not reach the future it was derived from, so layers
+ * that hand out derived futures link cancellation back down explicitly.
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    /** Cancels {@code upstream} when {@code derived} is cancelled; returns {@code derived}. */
+    public static <T> CompletableFuture<T> propagateCancellation(CompletableFuture<T> derived, Future<?> upstream) {
+        derived.whenComplete((result, error) -> {
+            if (derived.isCancelled()) {
+                upstream.cancel(true);
+            }
+        });
+        return derived;
+    }
+
+    /**
+     * Links a caller's future to whichever stage of a multi-stage call is currently
+     * running. Cancelling the bound future cancels the tracked stage, and any stage
+     * tracked after that is cancelled as soon as it is tracked.
+     */
+    public static final class CancellationLink {
+        private final AtomicReference<Future<?>> current = new AtomicReference<>();
+        private volatile boolean cancelled;
+
+        public <F extends Future<?>> F track(F stage) {
+            current.set(stage);
+            if (cancelled) {
+                stage.cancel(true);
+            }
+            return stage;
+        }
+
+        public <T> CompletableFuture<T> bind(CompletableFuture<T> derived) {
+            derived.whenComplete((result, error) -> {
+                if (derived.isCancelled()) {
+                    cancelled = true;
+                    Future<?> stage = current.get();
+                    if (stage != null) {
+                        stage.cancel(true);
+                    }
+                }
+            });
+            return derived;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.gazapps.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls with the same key into one underlying call whose
+ * result is shared by every caller. The key is released as soon as the call
+ * completes, so later calls always go upstream again.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public V execute(K key, Callable<V> call) throws Exception {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing;
+        while ((existing = inFlight.putIfAbsent(key, flight)) != null) {
+            if (pin(existing)) {
+                coalesced.incrementAndGet();
+                return await(existing);
+            }
+            // Every caller of that async flight gave up; start a fresh one
+            inFlight.remove(key, existing);
+        }
+
+        calls.incrementAndGet();
+        try {
+            V result = call.call();
+            inFlight.remove(key, flight);
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // Errors too, or the key would stay claimed by a flight that never completes
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Async variant. Each caller gets its own future; cancelling it detaches only that
+     * caller, and the underlying call is cancelled once every caller has cancelled.
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> call) {
+        while (true) {
+            Flight flight = new Flight(key);
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                calls.incrementAndGet();
+                CompletableFuture<V> caller = flight.attach();
+                start(flight, call);
+                return caller;
+            }
+
+            CompletableFuture<V> joined = attach(existing);
+            if (joined != null) {
+                coalesced.incrementAndGet();
+                return joined;
+            }
+            // Every caller of that flight gave up; start a fresh one
+            inFlight.remove(key, existing);
+        }
+    }
+
+    // A blocking caller cannot cancel, so it holds an async flight open until it completes
+    @SuppressWarnings("unchecked")
+    private boolean pin(CompletableFuture<V> existing) {
+        return !(existing instanceof SingleFlight<?, ?>.Flight flight) || ((Flight) flight).pin();
+    }
+
+    // Flights started by execute() are plain futures and cannot be abandoned
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<V> attach(CompletableFuture<V> existing) {
+        return existing instanceof SingleFlight<?, ?>.Flight flight
+            ? ((Flight) flight).attach()
+            : existing.copy();
+    }
+
+    private void start(Flight flight, Supplier<CompletableFuture<V>> call) {
+        try {
+            CompletableFuture<V> upstream = call.get();
+            flight.upstream = upstream;
+            // Every caller may have cancelled while the supplier was running, before there was anything to cancel
+            if (flight.isAbandoned() || flight.isDone()) {
+                upstream.cancel(true);
+            }
+            upstream.whenComplete((result, error) -> {
+                inFlight.remove(flight.key, flight);
+                if (error != null) {
+                    flight.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+                } else {
+                    flight.complete(result);
+                }
+            });
+        } catch (Throwable e) {
+            inFlight.remove(flight.key, flight);
+            flight.completeExceptionally(e);
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    public long getCallCount() { return calls.get(); }
+    public long getCoalescedCount() { return coalesced.get(); }
+    public int getInFlightCount() { return inFlight.size(); }
+
+    private V await(CompletableFuture<V> flight) throws Exception {
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private final class Flight extends CompletableFuture<V> {
+        private final K key;
+        private final AtomicInteger callers = new AtomicInteger();
+        private volatile Future<?> upstream;
+
+        Flight(K key) {
+            this.key = key;
+        }
+
+        // Returns null once the flight has been abandoned by all of its callers
+        CompletableFuture<V> attach() {
+            if (!pin()) {
+                return null;
+            }
+            CompletableFuture<V> caller = copy();
+            caller.whenComplete((result, error) -> {
+                if (caller.isCancelled() && callers.decrementAndGet() == 0 && callers.compareAndSet(0, -1)) {
+                    inFlight.remove(key, this);
+                    Future<?> call = upstream;
+                    if (call != null) {
+                        call.cancel(true);
+                    }
+                }
+            });
+            return caller;
+        }
+
+        // Counts one more caller; a caller that never detaches keeps the upstream alive
+        boolean pin() {
+            int current;
+            do {
+                current = callers.get();
+                if (current < 0) {
+                    return false;
+                }
+            } while (!callers.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        boolean isAbandoned() {
+            return callers.get() < 0;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.gazapps.inference;
+
+import static com.gazapps.inference.StubToolCaller.step;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import com.gazapps.mcp.ToolResult;
+
+class CompetitivePlanTest {
+    private final StubToolCaller tools = new StubToolCaller();
+    private final MultiToolOrchestrator orchestrator = tools.orchestrator();
+
+    @Test
+    void firstSuccessWinsAndCancelsTheOthers() throws Exception {
+        CompletableFuture<ToolResult> result = race(step("a", "slow"), step("b", "fast"));
+
+        tools.succeed("fast", "fast answer");
+
+        assertEquals("fast answer", await(result).content());
+        assertTrue(tools.awaitCall("slow").isCancelled());
+        assertEquals(1L, orchestrator.getCompetitorStats().get("server:fast").wins());
+    }
+
+    @Test
+    void failureOfOneCompetitorLeavesTheRaceToTheOthers() throws Exception {
+        CompletableFuture<ToolResult> result = race(step("a", "broken"), step("b", "fine"));
+
+        tools.fail("broken");
+        assertFalse(result.isDone());
+        tools.succeed("fine", "ok");
+
+        assertEquals("ok", await(result).content());
+    }
+
+    @Test
+    void allFailuresEndTheRaceWithAnError() throws Exception {
+        CompletableFuture<ToolResult> result = race(step("a", "one"), step("b", "two"));
+
+        tools.fail("one");
+        tools.fail("two");
+
+        ToolResult outcome = await(result);
+        assertFalse(outcome.success());
+        assertEquals("All competitive executions failed", outcome.message());
+    }
+
+    @Test
+    void competitorThatCannotStartCountsAsFailed() throws Exception {
+        tools.throwing.add("unstartable");
+        CompletableFuture<ToolResult> result = race(step("a", "unstartable"), step("b", "other"));
+
+        tools.fail("other");
+
+        assertFalse(await(result).success());
+    }
+
+    @Test
+    void competitorCancelledBeforeAnyWinCountsAsFailed() throws Exception {
+        CompletableFuture<ToolResult> result = race(step("a", "vanishing"), step("b", "other"));
+
+        tools.awaitCall("vanishing").cancel(true);
+        tools.fail("other");
+
+        assertFalse(await(result).success());
+    }
+
+    @Test
+    void hedgedCompetitorStartsEarlyWhenTheFirstFails() throws Exception {
+        orchestrator.setHedgeDelay(Duration.ofSeconds(30));
+        CompletableFuture<ToolResult> result = race(step("a", "first"), step("b", "second"));
+
+        tools.fail("first");
+        tools.succeed("second", "second answer");
+
+        assertEquals("second answer", await(result).content());
+        assertEquals(List.of("first", "second"), tools.started);
+    }
+
+    private CompletableFuture<ToolResult> race(Step... steps) {
+        MultiToolPlan plan = new MultiToolPlan(PlanType.COMPETITIVE, List.of(steps), null, null);
+        return CompletableFuture.supplyAsync(() -> orchestrator.executePlan(plan));
+    }
+
+    private static ToolResult await(CompletableFuture<ToolResult> result) {
+        return assertTimeoutPreemptively(Duration.ofSeconds(5), () -> result.join());
+    }
+}
@@ -0,0 +1,103 @@
+package com.gazapps.inference;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.gazapps.mcp.ToolResult;
+
+class ConditionExpressionTest {
+    private static final ToolResult WEATHER = ToolResult.success(null, "{\"current\": {\"temp\": 27.5, \"sky\": \"Clear\"}, \"days\": [1, 2]}");
+    private static final ToolResult FAILED = ToolResult.error("timeout");
+
+    private final Map<String, Object> bindings = Map.of(
+        "weather", WEATHER,
+        "last", ToolResult.success(null, "21.5 °C, light snow"),
+        "broken", FAILED,
+        "iteration", 2);
+
+    @Test
+    void comparesNumbersExtractedFromText() {
+        assertTrue(test("number(last.result) > 20"));
+        assertFalse(test("number(last) >= 22"));
+        assertTrue(test("iteration < 3 && iteration == 2"));
+    }
+
+    @Test
+    void followsJsonPaths() {
+        assertTrue(test("weather.json.current.temp > 25"));
+        assertTrue(test("weather.current.sky == 'Clear'"));
+        assertTrue(test("weather.days[1] == 2"));
+        assertFalse(test("weather.json.missing.value == 1"));
+    }
+
+    @Test
+    void readsResultFields() {
+        assertTrue(test("weather.success and not broken.success"));
+        assertTrue(test("broken.message contains 'time'"));
+        assertTrue(test("broken.result == null"));
+    }
+
+    @Test
+    void appliesOperatorsAndPrecedence() {
+        assertTrue(test("false || true && !false"));
+        assertFalse(test("(false || true) && false"));
+        assertTrue(test("lower(last.result) contains 'snow'"));
+        assertTrue(test("length(last.result) > 5"));
+        assertTrue(test("'5' == 5"));
+        assertFalse(test("'v5' == 5"));
+    }
+
+    @Test
+    void matchesRegularExpressions() {
+        assertTrue(test("last.result =~ '(?i)SNOW'"));
+        assertTrue(test("last.result !~ 'rain'"));
+        assertTrue(test("last.result matches '\\d+\\.\\d'"));
+    }
+
+    @Test
+    void unknownReferencesAreFalsy() {
+        assertFalse(test("nosuchstep.result"));
+        assertFalse(test("number(nosuchstep) > 0"));
+    }
+
+    @Test
+    void rejectsMalformedExpressions() {
+        assertThrows(IllegalArgumentException.class, () -> ConditionExpression.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> ConditionExpression.parse("a >"));
+        assertThrows(IllegalArgumentException.class, () -> ConditionExpression.parse("(a == 1"));
+        assertThrows(IllegalArgumentException.class, () -> ConditionExpression.parse("eval(a)"));
+        assertThrows(IllegalArgumentException.class, () -> ConditionExpression.parse("a =~ '('"));
+        assertThrows(IllegalArgumentException.class, () -> ConditionExpression.parse("a == 'open"));
+        assertThrows(IllegalArgumentException.class, () -> ConditionExpression.parse("x".repeat(1001)));
+    }
+
+    @Test
+    void catastrophicBacktrackingFailsInsteadOfHanging() {
+        // Takes tens of seconds to fail without the deadline
+        ConditionExpression evil = ConditionExpression.parse("text =~ '(.*a){16}x'");
+        Map<String, Object> input = Map.of("text", "a".repeat(30));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+            assertThrows(IllegalStateException.class, () -> evil.test(input)));
+    }
+
+    @Test
+    void rejectsOverlongPatterns() {
+        String pattern = "a".repeat(201);
+
+        assertThrows(IllegalArgumentException.class, () -> ConditionExpression.parse("text =~ '" + pattern + "'"));
+        ConditionExpression dynamic = ConditionExpression.parse("text =~ pattern");
+        assertThrows(IllegalStateException.class, () -> dynamic.test(Map.of("text", "a", "pattern", pattern)));
+    }
+
+    private boolean test(String expression) {
+        return ConditionExpression.parse(expression).test(bindings);
+    }
+}
@@ -0,0 +1,129 @@
+package com.gazapps.inference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.gazapps.mcp.Tool;
+import com.gazapps.mcp.ToolRegistry;
+
+class IntentRouterTest {
+    private static final String DIRECTORIES = "filesystem:list_allowed_directories";
+
+    private ToolRegistry registry;
+    private IntentRouter router;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ToolRegistry();
+        registry.register("time-server", List.of(new Tool("get_current_time", "Current time", "time-server",
+            Map.of("type", "object", "properties", Map.of("timezone", Map.of("type", "string")), "required", List.of("timezone")))));
+        registry.register("weather-server", List.of(new Tool("get-alerts", "Weather alerts", "weather-server",
+            Map.of("type", "object", "properties", Map.of("state", Map.of("type", "string")), "required", List.of("state")))));
+        registry.register("filesystem", List.of(new Tool("list_allowed_directories", "Allowed directories", "filesystem",
+            Map.of("type", "object", "properties", Map.of()))));
+        router = new IntentRouter(registry, IntentRouter.DEFAULT_CONFIDENCE_THRESHOLD);
+    }
+
+    @Test
+    void timeRuleUsesTheLocalZone() {
+        QueryAnalysis analysis = router.route("What time is it?").orElseThrow();
+
+        assertEquals(QueryAnalysis.ExecutionType.SINGLE_TOOL, analysis.execution());
+        assertEquals("time-server:get_current_time", analysis.details());
+        assertEquals(Map.of("timezone", ZoneId.systemDefault().getId()), analysis.parameters());
+        assertEquals(1, router.getRuleHits());
+    }
+
+    @Test
+    void timeRuleResolvesACityToItsZone() {
+        QueryAnalysis analysis = router.route("what is the current time in Sao Paulo?").orElseThrow();
+
+        assertEquals("time-server:get_current_time", analysis.details());
+        assertEquals(Map.of("timezone", "America/Sao_Paulo"), analysis.parameters());
+    }
+
+    @Test
+    void timeRuleSkipsAnUnknownCity() {
+        assertTrue(router.route("what time is it in Atlantis").isEmpty());
+        assertEquals(0, router.getRuleHits());
+    }
+
+    @Test
+    void alertsRuleUppercasesTheState() {
+        QueryAnalysis analysis = router.route("weather alerts for ca").orElseThrow();
+
+        assertEquals("weather-server:get-alerts", analysis.details());
+        assertEquals(Map.of("state", "CA"), analysis.parameters());
+    }
+
+    @Test
+    void ruleIsSkippedWhenItsToolIsNotRegistered() {
+        registry.remove("weather-server");
+
+        assertTrue(router.route("alerts in ny").isEmpty());
+    }
+
+    @Test
+    void classifierRoutesAboveTheConfidenceThreshold() {
+        train();
+
+        // Two matching tokens give 16/17 (about 0.94) confidence
+        Optional<QueryAnalysis> routed = router.route("allowed directories");
+
+        assertEquals(DIRECTORIES, routed.orElseThrow().details());
+        assertEquals(Map.of(), routed.get().parameters());
+        assertEquals(1, router.getClassifierHits());
+    }
+
+    @Test
+    void classifierDefersBelowTheConfidenceThreshold() {
+        train();
+
+        // One matching token gives 4/5 (0.8) confidence, and an even split gives 0.5
+        assertTrue(router.route("directories").isEmpty());
+        assertTrue(router.route("show quantum").isEmpty());
+        assertEquals(0, router.getClassifierHits());
+    }
+
+    @Test
+    void classifierRoutesDirectAnswersToTheFastPath() {
+        train();
+
+        QueryAnalysis analysis = router.route("explain quantum physics").orElseThrow();
+
+        assertEquals(QueryAnalysis.ExecutionType.DIRECT_ANSWER, analysis.execution());
+    }
+
+    @Test
+    void classifierDefersQueriesThatReferToThePreviousAnswer() {
+        train();
+
+        assertTrue(router.route("show allowed directories again").isEmpty());
+    }
+
+    @Test
+    void parseFallbacksAreNotLearned() {
+        for (int i = 0; i < 3; i++) {
+            router.learn("show allowed directories", new QueryAnalysis(QueryAnalysis.ExecutionType.SINGLE_TOOL, DIRECTORIES, Map.of()));
+            router.learn("tell me a joke", QueryAnalysis.fallback("Could not parse"));
+        }
+
+        // With only one learned label there is nothing to tell apart
+        assertTrue(router.route("tell me a joke").isEmpty());
+    }
+
+    private void train() {
+        for (int i = 0; i < 3; i++) {
+            router.learn("show allowed directories", new QueryAnalysis(QueryAnalysis.ExecutionType.SINGLE_TOOL, DIRECTORIES, Map.of()));
+            router.learn("explain quantum physics", new QueryAnalysis(QueryAnalysis.ExecutionType.DIRECT_ANSWER, "reasoning", null));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.gazapps.inference;
+
+import static com.gazapps.inference.StubToolCaller.step;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class MultiToolPlanTest {
+    private static final List<Step> STEPS = List.of(step("check", "probe"), step("act", "apply"));
+
+    @Test
+    void conditionalPlanNeedsAConditionOrPrompt() {
+        assertFalse(new MultiToolPlan(PlanType.CONDITIONAL, STEPS, null, null, null).isValid());
+        assertTrue(new MultiToolPlan(PlanType.CONDITIONAL, STEPS, null, "check.success", null).isValid());
+        assertTrue(new MultiToolPlan(PlanType.ITERATIVE, STEPS, "Stop when done", null, null).isValid());
+    }
+
+    @Test
+    void unparsableConditionIsRejectedWithoutAPrompt() {
+        assertFalse(new MultiToolPlan(PlanType.CONDITIONAL, STEPS, null, "check.result >", null).isValid());
+        assertFalse(new MultiToolPlan(PlanType.ITERATIVE, STEPS, null, "eval(check)", null).isValid());
+    }
+
+    @Test
+    void unparsableConditionFallsBackToThePrompt() {
+        assertTrue(new MultiToolPlan(PlanType.CONDITIONAL, STEPS, "Continue if it worked", "check.result >", null).isValid());
+    }
+}
@@ -0,0 +1,102 @@
+package com.gazapps.inference;
+
+import static com.gazapps.inference.StubToolCaller.step;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import com.gazapps.mcp.ToolResult;
+
+class ParallelPlanTest {
+    private final StubToolCaller tools = new StubToolCaller();
+    private final MultiToolOrchestrator orchestrator = tools.orchestrator();
+
+    @Test
+    void independentStepsStartTogether() throws Exception {
+        CompletableFuture<ToolResult> result = run(step("a", "alpha"), step("b", "beta"), step("c", "gamma"));
+
+        tools.awaitCall("alpha");
+        tools.awaitCall("beta");
+        tools.awaitCall("gamma");
+        tools.succeed("alpha", "1");
+        tools.succeed("beta", "2");
+        tools.succeed("gamma", "3");
+
+        ToolResult outcome = await(result);
+        assertTrue(outcome.success());
+        assertEquals("Result 1: 1\n\nResult 2: 2\n\nResult 3: 3", outcome.content());
+    }
+
+    @Test
+    void dependentStepWaitsForItsDependency() throws Exception {
+        CompletableFuture<ToolResult> result = run(step("a", "alpha"), step("b", "beta", "a"), step("c", "gamma"));
+
+        tools.awaitCall("gamma");
+        tools.succeed("gamma", "3");
+        Thread.sleep(50);
+        assertFalse(tools.started.contains("beta"));
+
+        tools.succeed("alpha", "1");
+        tools.succeed("beta", "2");
+
+        assertTrue(await(result).success());
+        assertTrue(tools.started.indexOf("beta") > tools.started.indexOf("alpha"));
+    }
+
+    @Test
+    void joinStepWaitsForEveryBranch() throws Exception {
+        CompletableFuture<ToolResult> result = run(step("a", "alpha"), step("b", "beta", "a"),
+            step("c", "gamma", "a"), step("d", "delta", "b", "c"));
+
+        tools.succeed("alpha", "1");
+        tools.succeed("beta", "2");
+        Thread.sleep(50);
+        assertFalse(tools.started.contains("delta"));
+
+        tools.succeed("gamma", "3");
+        tools.succeed("delta", "4");
+
+        assertTrue(await(result).success());
+        assertEquals("delta", tools.started.get(3));
+    }
+
+    @Test
+    void failureCancelsOnlyItsDownstreamSteps() throws Exception {
+        CompletableFuture<ToolResult> result = run(step("a", "alpha"), step("b", "beta", "a"),
+            step("c", "gamma", "b"), step("x", "other"));
+
+        tools.fail("alpha");
+        tools.succeed("other", "fine");
+
+        ToolResult outcome = await(result);
+        assertFalse(outcome.success());
+        assertEquals("Dependencies not satisfied for step: b", outcome.message());
+        assertEquals(List.of("alpha", "other"), tools.started.stream().sorted().toList());
+    }
+
+    @Test
+    void unknownDependencyCancelsTheStep() throws Exception {
+        CompletableFuture<ToolResult> result = run(step("a", "alpha"), step("b", "beta", "missing"));
+
+        tools.succeed("alpha", "1");
+
+        assertEquals("Dependencies not satisfied for step: b", await(result).message());
+        assertFalse(tools.started.contains("beta"));
+    }
+
+    private CompletableFuture<ToolResult> run(Step... steps) {
+        MultiToolPlan plan = new MultiToolPlan(PlanType.PARALLEL, List.of(steps), null, null);
+        return CompletableFuture.supplyAsync(() -> orchestrator.executePlan(plan));
+    }
+
+    private static ToolResult await(CompletableFuture<ToolResult> result) {
+        return assertTimeoutPreemptively(Duration.ofSeconds(5), () -> result.join());
+    }
+}
@@ -0,0 +1,83 @@
+package com.gazapps.inference;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.gazapps.llm.LLMClient;
+import com.gazapps.mcp.ToolResult;
+
+/**
+ * Tool caller whose calls stay pending until the test completes them. A call is keyed by
+ * its tool name; tools listed as throwing fail before returning a future.
+ */
+class StubToolCaller implements MultiToolOrchestrator.ToolCaller {
+    final Map<String, CompletableFuture<ToolResult>> calls = new ConcurrentHashMap<>();
+    final Map<String, Map<String, Object>> arguments = new ConcurrentHashMap<>();
+    final List<String> started = new CopyOnWriteArrayList<>();
+    final Set<String> throwing = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public CompletableFuture<ToolResult> callToolAsync(String serverId, String toolName, Map<String, Object> args) {
+        if (throwing.contains(toolName)) {
+            throw new IllegalStateException(toolName + " cannot start");
+        }
+        CompletableFuture<ToolResult> call = new CompletableFuture<>();
+        arguments.put(toolName, args);
+        calls.put(toolName, call);
+        started.add(toolName);
+        return call;
+    }
+
+    CompletableFuture<ToolResult> awaitCall(String toolName) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!calls.containsKey(toolName)) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError(toolName + " was never called");
+            }
+            Thread.sleep(5);
+        }
+        return calls.get(toolName);
+    }
+
+    void succeed(String toolName, String content) throws InterruptedException {
+        awaitCall(toolName).complete(ToolResult.success(null, content));
+    }
+
+    void fail(String toolName) throws InterruptedException {
+        awaitCall(toolName).complete(ToolResult.error(toolName + " failed"));
+    }
+
+    MultiToolOrchestrator orchestrator() {
+        return new MultiToolOrchestrator(StageClients.of(new NoLlmClient()), this, new ServerBulkheads());
+    }
+
+    static Step step(String id, String toolName, String... dependencies) {
+        return new Step(id, "server", toolName, Map.of(), List.of(dependencies));
+    }
+
+    static Step step(String id, String toolName, Map<String, Object> parameters, String... dependencies) {
+        return new Step(id, "server", toolName, parameters, List.of(dependencies));
+    }
+
+    // Plans under test aggregate without an LLM, so any call to it is a bug
+    private static class NoLlmClient implements LLMClient {
+        @Override
+        public String send(String prompt) {
+            throw new AssertionError("Unexpected LLM call: " + prompt);
+        }
+
+        @Override
+        public String getProviderName() {
+            return "none";
+        }
+
+        @Override
+        public boolean isHealthy() {
+            return true;
+        }
+    }
+}
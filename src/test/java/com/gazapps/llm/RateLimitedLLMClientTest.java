@@ -0,0 +1,93 @@
+package com.gazapps.llm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+class RateLimitedLLMClientTest {
+
+    @Test
+    void cancellingTheResultCancelsTheRunningCall() throws Exception {
+        StubClient key = new StubClient();
+        RateLimitedLLMClient client = new RateLimitedLLMClient(List.of(key), 60, 100_000);
+
+        CompletableFuture<String> result = client.sendAsync("hello");
+        result.cancel(true);
+
+        assertTrue(key.calls.get(0).isCancelled());
+        Thread.sleep(50);
+        assertEquals(1, key.calls.size());
+    }
+
+    @Test
+    void cancellingAQueuedRequestNeverSendsIt() throws Exception {
+        StubClient key = new StubClient();
+        RateLimitedLLMClient client = new RateLimitedLLMClient(List.of(key), 1, 100_000);
+
+        client.sendAsync("first");
+        CompletableFuture<String> queued = client.sendAsync("second");
+        assertEquals(1L, client.getQueuedRequests());
+
+        queued.cancel(true);
+        Thread.sleep(50);
+        assertEquals(1, key.calls.size());
+    }
+
+    @Test
+    void rateLimitedCallIsRetried() {
+        StubClient key = new StubClient();
+        RateLimitedLLMClient client = new RateLimitedLLMClient(List.of(key), 600, 100_000);
+
+        CompletableFuture<String> result = client.sendAsync("hello");
+        key.calls.get(0).completeExceptionally(new RateLimitException(Duration.ZERO, "slow down"));
+
+        assertEquals(2, key.calls.size());
+        key.calls.get(1).complete("ok");
+        assertEquals("ok", result.join());
+        assertEquals(1L, client.getRateLimitRetries());
+    }
+
+    @Test
+    void releasedReservationRestoresTheBudget() {
+        TokenBucket bucket = new TokenBucket(1, 100_000);
+
+        bucket.reserve(10);
+        bucket.reserve(10);
+        long queued = bucket.delayFor(10);
+        bucket.release(10);
+
+        assertTrue(bucket.delayFor(10) < queued);
+    }
+
+    private static class StubClient implements LLMClient {
+        private final List<CompletableFuture<String>> calls = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String send(String prompt) {
+            return sendAsync(prompt).join();
+        }
+
+        @Override
+        public CompletableFuture<String> sendAsync(String prompt) {
+            CompletableFuture<String> call = new CompletableFuture<>();
+            calls.add(call);
+            return call;
+        }
+
+        @Override
+        public String getProviderName() {
+            return "stub";
+        }
+
+        @Override
+        public boolean isHealthy() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.gazapps.llm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+class RoutingLLMClientTest {
+
+    @Test
+    void cancellingTheResultCancelsThePrimaryRequest() {
+        StubClient primary = new StubClient("primary");
+        StubClient secondary = new StubClient("secondary");
+        RoutingLLMClient router = new RoutingLLMClient(List.of(primary, secondary), false);
+
+        CompletableFuture<String> result = router.sendAsync("hello");
+        result.cancel(true);
+
+        assertTrue(primary.calls.get(0).isCancelled());
+        assertTrue(secondary.calls.isEmpty());
+    }
+
+    @Test
+    void failoverRequestIsCancelledWithTheResult() {
+        StubClient primary = new StubClient("primary");
+        StubClient secondary = new StubClient("secondary");
+        RoutingLLMClient router = new RoutingLLMClient(List.of(primary, secondary), false);
+
+        CompletableFuture<String> result = router.sendAsync("hello");
+        primary.calls.get(0).completeExceptionally(new RuntimeException("down"));
+        assertEquals(1, secondary.calls.size());
+
+        result.cancel(true);
+        assertTrue(secondary.calls.get(0).isCancelled());
+    }
+
+    @Test
+    void primaryAnswerCancelsTheHedge() {
+        StubClient primary = new StubClient("primary");
+        StubClient secondary = new StubClient("secondary");
+        RoutingLLMClient router = new RoutingLLMClient(List.of(primary, secondary), true);
+
+        CompletableFuture<String> result = router.sendAsync("hello");
+        // Without latency samples the hedge starts after the default two second delay
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (secondary.calls.isEmpty()) {
+                Thread.sleep(20);
+            }
+            return null;
+        });
+
+        primary.calls.get(0).complete("from primary");
+        assertEquals("from primary", result.join());
+        assertTrue(secondary.calls.get(0).isCancelled());
+        assertEquals(1L, router.getHedgedRequests());
+    }
+
+    private static class StubClient implements LLMClient {
+        private final String name;
+        private final List<CompletableFuture<String>> calls = new CopyOnWriteArrayList<>();
+
+        StubClient(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String send(String prompt) {
+            return sendAsync(prompt).join();
+        }
+
+        @Override
+        public CompletableFuture<String> sendAsync(String prompt) {
+            CompletableFuture<String> call = new CompletableFuture<>();
+            calls.add(call);
+            return call;
+        }
+
+        @Override
+        public String getProviderName() {
+            return name;
+        }
+
+        @Override
+        public boolean isHealthy() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.gazapps.mcp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.gazapps.mcp.SchemaValidator.SchemaViolation;
+
+class SchemaValidatorTest {
+
+    @Test
+    void stringsAreCoercedToTheDeclaredType() {
+        SchemaValidator validator = SchemaValidator.compile(object(Map.of(
+            "count", Map.of("type", "integer"),
+            "ratio", Map.of("type", "number"),
+            "verbose", Map.of("type", "boolean"))));
+
+        Map<String, Object> coerced = validator.coerce(Map.of("count", "3", "ratio", "0.5", "verbose", "TRUE"));
+
+        assertEquals(Map.of("count", 3L, "ratio", 0.5, "verbose", true), coerced);
+    }
+
+    @Test
+    void integerRejectsFractions() {
+        SchemaValidator validator = SchemaValidator.compile(object(Map.of("count", Map.of("type", "integer"))));
+
+        assertFalse(validator.isValid(Map.of("count", "2.5")));
+        assertFalse(validator.isValid(Map.of("count", 2.5)));
+        assertTrue(validator.isValid(Map.of("count", 2.0)));
+    }
+
+    @Test
+    void validArgumentsAreReturnedAsTheSameInstance() {
+        SchemaValidator validator = SchemaValidator.compile(object(Map.of("city", Map.of("type", "string"))));
+        Map<String, Object> args = Map.of("city", "Lisbon");
+
+        assertSame(args, validator.coerce(args));
+    }
+
+    @Test
+    void emptySchemaAcceptsAnything() {
+        Map<String, Object> args = Map.of("anything", List.of(1, 2));
+
+        assertSame(args, SchemaValidator.compile(Map.of()).coerce(args));
+        assertEquals(Map.of(), SchemaValidator.compile(null).coerce(null));
+    }
+
+    @Test
+    void enumAndConstRestrictValues() {
+        SchemaValidator validator = SchemaValidator.compile(object(Map.of(
+            "unit", Map.of("type", "string", "enum", List.of("celsius", "fahrenheit")),
+            "version", Map.of("const", 2))));
+
+        assertTrue(validator.isValid(Map.of("unit", "celsius", "version", 2.0)));
+        assertFalse(validator.isValid(Map.of("unit", "kelvin")));
+        assertFalse(validator.isValid(Map.of("version", 3)));
+    }
+
+    @Test
+    void numericBoundsAreChecked() {
+        SchemaValidator validator = SchemaValidator.compile(object(Map.of(
+            "days", Map.of("type", "integer", "minimum", 1, "maximum", 7),
+            "ratio", Map.of("type", "number", "exclusiveMinimum", 0, "exclusiveMaximum", 1))));
+
+        assertTrue(validator.isValid(Map.of("days", 1, "ratio", 0.5)));
+        assertTrue(validator.isValid(Map.of("days", 7)));
+        assertFalse(validator.isValid(Map.of("days", 0)));
+        assertFalse(validator.isValid(Map.of("days", "8")));
+        assertFalse(validator.isValid(Map.of("ratio", 0)));
+        assertFalse(validator.isValid(Map.of("ratio", 1)));
+    }
+
+    @Test
+    void stringLengthAndPatternAreChecked() {
+        SchemaValidator validator = SchemaValidator.compile(object(Map.of(
+            "state", Map.of("type", "string", "minLength", 2, "maxLength", 2, "pattern", "^[A-Z]+$"))));
+
+        assertTrue(validator.isValid(Map.of("state", "CA")));
+        assertFalse(validator.isValid(Map.of("state", "C")));
+        assertFalse(validator.isValid(Map.of("state", "CAL")));
+        assertFalse(validator.isValid(Map.of("state", "ca")));
+    }
+
+    @Test
+    void arrayItemsAndSizeAreChecked() {
+        SchemaValidator validator = SchemaValidator.compile(object(Map.of(
+            "ids", Map.of("type", "array", "minItems", 1, "maxItems", 3, "items", Map.of("type", "integer")))));
+
+        assertEquals(Map.of("ids", List.of(1L, 2L)), validator.coerce(Map.of("ids", List.of("1", 2L))));
+        assertFalse(validator.isValid(Map.of("ids", List.of())));
+        assertFalse(validator.isValid(Map.of("ids", List.of(1, 2, 3, 4))));
+    }
+
+    @Test
+    void allOfAppliesEverySchema() {
+        SchemaValidator validator = SchemaValidator.compile(object(Map.of(
+            "port", Map.of("allOf", List.of(Map.of("type", "integer"), Map.of("minimum", 1024))))));
+
+        assertEquals(Map.of("port", 8080L), validator.coerce(Map.of("port", "8080")));
+        assertFalse(validator.isValid(Map.of("port", 80)));
+    }
+
+    @Test
+    void anyOfTakesTheFirstMatchingSchema() {
+        SchemaValidator validator = SchemaValidator.compile(object(Map.of(
+            "limit", Map.of("anyOf", List.of(Map.of("type", "integer"), Map.of("const", "all"))))));
+
+        assertEquals(Map.of("limit", 10L), validator.coerce(Map.of("limit", "10")));
+        assertTrue(validator.isValid(Map.of("limit", "all")));
+        assertFalse(validator.isValid(Map.of("limit", "some")));
+    }
+
+    @Test
+    void oneOfNeedsExactlyOneMatch() {
+        SchemaValidator validator = SchemaValidator.compile(object(Map.of(
+            "value", Map.of("oneOf", List.of(Map.of("type", "integer"), Map.of("type", "number", "maximum", 1))))));
+
+        assertTrue(validator.isValid(Map.of("value", 5)));
+        assertTrue(validator.isValid(Map.of("value", 0.5)));
+        SchemaViolation violation = assertThrows(SchemaViolation.class, () -> validator.coerce(Map.of("value", 1)));
+        assertEquals("Invalid parameter value: must match exactly one schema, matched 2", violation.getMessage());
+    }
+
+    @Test
+    void refsResolveToDefinitions() {
+        SchemaValidator validator = SchemaValidator.compile(Map.of(
+            "type", "object",
+            "$defs", Map.of("point", object(Map.of("x", Map.of("type", "number"), "y", Map.of("type", "number")))),
+            "properties", Map.of("from", Map.of("$ref", "#/$defs/point"), "to", Map.of("$ref", "#/$defs/point"))));
+
+        assertEquals(Map.of("from", Map.of("x", 1.0, "y", 2.0)), validator.coerce(Map.of("from", Map.of("x", "1", "y", 2.0))));
+        SchemaViolation violation = assertThrows(SchemaViolation.class,
+            () -> validator.coerce(Map.of("to", Map.of("x", "east"))));
+        assertEquals("to.x", violation.path());
+    }
+
+    @Test
+    void rootRefAllowsRecursiveSchemas() {
+        SchemaValidator validator = SchemaValidator.compile(Map.of(
+            "type", "object",
+            "properties", Map.of("name", Map.of("type", "string"),
+                "children", Map.of("type", "array", "items", Map.of("$ref", "#")))));
+
+        assertTrue(validator.isValid(Map.of("name", "root", "children", List.of(Map.of("name", "leaf")))));
+        assertFalse(validator.isValid(Map.of("children", List.of(Map.of("name", 1)))));
+    }
+
+    @Test
+    void missingPropertiesGetTheirDefaults() {
+        SchemaValidator validator = SchemaValidator.compile(object(Map.of(
+            "city", Map.of("type", "string"),
+            "days", Map.of("type", "integer", "default", 3))));
+
+        assertEquals(Map.of("city", "Lisbon", "days", 3), validator.coerce(Map.of("city", "Lisbon")));
+        assertEquals(Map.of("city", "Lisbon", "days", 5L), validator.coerce(Map.of("city", "Lisbon", "days", "5")));
+    }
+
+    @Test
+    void additionalPropertiesCanBeForbidden() {
+        SchemaValidator validator = SchemaValidator.compile(Map.of(
+            "type", "object",
+            "properties", Map.of("city", Map.of("type", "string")),
+            "additionalProperties", false));
+
+        SchemaViolation violation = assertThrows(SchemaViolation.class,
+            () -> validator.coerce(Map.of("city", "Lisbon", "country", "PT")));
+        assertEquals("Invalid parameter country: unexpected parameter", violation.getMessage());
+    }
+
+    @Test
+    void additionalPropertiesCanHaveASchema() {
+        SchemaValidator validator = SchemaValidator.compile(Map.of(
+            "type", "object",
+            "additionalProperties", Map.of("type", "integer")));
+
+        assertEquals(Map.of("a", 1L, "b", 2), validator.coerce(Map.of("a", "1", "b", 2)));
+        assertFalse(validator.isValid(Map.of("a", "one")));
+    }
+
+    @Test
+    void violationsNameTheParameterPath() {
+        SchemaValidator validator = SchemaValidator.compile(Map.of(
+            "type", "object",
+            "required", List.of("city"),
+            "properties", Map.of(
+                "city", Map.of("type", "string"),
+                "stops", Map.of("type", "array", "items", object(Map.of("days", Map.of("type", "integer")))))));
+
+        SchemaViolation missing = assertThrows(SchemaViolation.class, () -> validator.coerce(Map.of()));
+        assertEquals("Invalid parameter city: required parameter is missing", missing.getMessage());
+
+        SchemaViolation nested = assertThrows(SchemaViolation.class,
+            () -> validator.coerce(Map.of("city", "Lisbon", "stops", List.of(Map.of("days", 1), Map.of("days", "two")))));
+        assertEquals("stops[1].days", nested.path());
+        assertEquals("Invalid parameter stops[1].days: cannot convert 'two' to integer", nested.getMessage());
+    }
+
+    @Test
+    void topLevelViolationHasNoPath() {
+        SchemaValidator validator = SchemaValidator.compile(Map.of("type", "array"));
+
+        SchemaViolation violation = assertThrows(SchemaViolation.class, () -> validator.coerce(Map.of()));
+        assertEquals("", violation.path());
+        assertEquals("Invalid arguments: expected array", violation.getMessage());
+    }
+
+    private static Map<String, Object> object(Map<String, Object> properties) {
+        return Map.of("type", "object", "properties", properties);
+    }
+}
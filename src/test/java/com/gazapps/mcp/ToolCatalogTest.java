@@ -0,0 +1,38 @@
+package com.gazapps.mcp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ToolCatalogTest {
+
+    @Test
+    void recordedToolsSurviveARestart() throws IOException {
+        Path directory = Files.createTempDirectory("tool-catalog");
+        Map<String, Object> schema = Map.of("type", "object",
+            "properties", Map.of("city", Map.of("type", "string")), "required", List.of("city"));
+        new ToolCatalog(directory).record("weather-server",
+            List.of(new Tool("get-forecast", "Forecast for a city", "weather-server", schema, Map.of("readOnlyHint", true))));
+
+        List<Tool> tools = new ToolCatalog(directory).tools("weather-server");
+
+        assertEquals(1, tools.size());
+        Tool tool = tools.get(0);
+        assertEquals("get-forecast", tool.name());
+        assertEquals("weather-server", tool.serverId());
+        assertEquals(schema, tool.inputSchema());
+        assertTrue(tool.isReadOnly());
+    }
+
+    @Test
+    void unknownServerHasNoTools() throws IOException {
+        assertTrue(new ToolCatalog(Files.createTempDirectory("tool-catalog")).tools("time-server").isEmpty());
+    }
+}
@@ -0,0 +1,165 @@
+package com.gazapps.mcp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ToolResultCacheTest {
+    private static final Map<String, Object> SCHEMA = Map.of("type", "object");
+
+    private final ToolResultCache cache = new ToolResultCache(1024, Duration.ofMinutes(5));
+
+    @Test
+    void readOnlyToolIsCachedByCanonicalArguments() {
+        Tool tool = tool("weather-server", "get-forecast", Map.of("readOnlyHint", true));
+        Map<String, Object> args = new LinkedHashMap<>();
+        args.put("latitude", 38.7);
+        args.put("longitude", -9.1);
+        cache.store(tool, args, ToolResult.success(tool, "sunny"));
+
+        Map<String, Object> reordered = new LinkedHashMap<>();
+        reordered.put("longitude", -9.1);
+        reordered.put("latitude", 38.7);
+        ToolResult cached = cache.lookup(tool, reordered);
+
+        assertNotNull(cached);
+        assertEquals("sunny", cached.content());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void unannotatedToolWithoutTtlIsNotCached() {
+        Tool tool = tool("weather-server", "get-forecast", Map.of());
+        cache.store(tool, Map.of(), ToolResult.success(tool, "sunny"));
+
+        assertNull(cache.lookup(tool, Map.of()));
+        assertFalse(cache.isReadOnly(tool));
+    }
+
+    @Test
+    void configuredZeroTtlDisablesCaching() {
+        Tool tool = tool("time-server", "get_current_time", Map.of("readOnlyHint", true));
+        cache.setTtl("time-server", "get_current_time", Duration.ZERO);
+        cache.store(tool, Map.of("timezone", "UTC"), ToolResult.success(tool, "12:00"));
+
+        assertNull(cache.lookup(tool, Map.of("timezone", "UTC")));
+        assertEquals(0, cache.getEntryCount());
+        // Still read-only, so a call to it must not invalidate the server's other results
+        assertTrue(cache.isReadOnly(tool));
+    }
+
+    @Test
+    void nonIdempotentAnnotatedToolIsNeverCached() {
+        Tool tool = tool("notes-server", "append_note", Map.of("readOnlyHint", false, "idempotentHint", false));
+        cache.setTtl("notes-server", "append_note", Duration.ofMinutes(10));
+        cache.store(tool, Map.of("text", "hello"), ToolResult.success(tool, "ok"));
+
+        assertNull(cache.lookup(tool, Map.of("text", "hello")));
+        assertEquals(0, cache.getEntryCount());
+    }
+
+    @Test
+    void failedResultsAreNotCached() {
+        Tool tool = tool("weather-server", "get-alerts", Map.of("readOnlyHint", true));
+        cache.store(tool, Map.of("state", "CA"), ToolResult.error("upstream down"));
+
+        assertNull(cache.lookup(tool, Map.of("state", "CA")));
+    }
+
+    @Test
+    void expiredEntryIsDropped() throws InterruptedException {
+        Tool tool = tool("weather-server", "get-alerts", Map.of());
+        cache.setTtl("weather-server", "get-alerts", Duration.ofMillis(20));
+        cache.store(tool, Map.of("state", "CA"), ToolResult.success(tool, "no alerts"));
+        assertNotNull(cache.lookup(tool, Map.of("state", "CA")));
+
+        Thread.sleep(50);
+
+        assertNull(cache.lookup(tool, Map.of("state", "CA")));
+        assertEquals(0, cache.getEntryCount());
+    }
+
+    @Test
+    void changedFileInvalidatesItsResult() throws IOException {
+        Path file = Files.createTempFile("tool-cache", ".txt");
+        Files.writeString(file, "first");
+        Tool tool = tool("filesystem-server", "read_file", Map.of("readOnlyHint", true));
+        Map<String, Object> args = Map.of("path", file.toString());
+        cache.store(tool, args, ToolResult.success(tool, "first"));
+        assertNotNull(cache.lookup(tool, args));
+
+        Files.writeString(file, "second version");
+
+        assertNull(cache.lookup(tool, args));
+    }
+
+    @Test
+    void creatingAMissingFileInvalidatesItsResult() throws IOException {
+        Path file = Files.createTempDirectory("tool-cache").resolve("later.txt");
+        Tool tool = tool("filesystem-server", "get_file_info", Map.of("readOnlyHint", true));
+        Map<String, Object> args = Map.of("path", file.toString());
+        cache.store(tool, args, ToolResult.success(tool, "not found"));
+        assertNotNull(cache.lookup(tool, args));
+
+        Files.writeString(file, "now it exists");
+
+        assertNull(cache.lookup(tool, args));
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedWhenFull() {
+        // Each 20-character result takes 40 bytes, so only two fit
+        ToolResultCache small = new ToolResultCache(100, Duration.ofMinutes(5));
+        Tool tool = tool("weather-server", "get-alerts", Map.of("readOnlyHint", true));
+        small.store(tool, Map.of("state", "CA"), ToolResult.success(tool, "a".repeat(20)));
+        small.store(tool, Map.of("state", "NY"), ToolResult.success(tool, "b".repeat(20)));
+        assertNotNull(small.lookup(tool, Map.of("state", "CA")));
+
+        small.store(tool, Map.of("state", "TX"), ToolResult.success(tool, "c".repeat(20)));
+
+        assertEquals(2, small.getEntryCount());
+        assertEquals(80, small.getSizeBytes());
+        assertNull(small.lookup(tool, Map.of("state", "NY")));
+        assertNotNull(small.lookup(tool, Map.of("state", "CA")));
+        assertNotNull(small.lookup(tool, Map.of("state", "TX")));
+    }
+
+    @Test
+    void resultLargerThanTheCacheIsNotStored() {
+        ToolResultCache small = new ToolResultCache(100, Duration.ofMinutes(5));
+        Tool tool = tool("filesystem-server", "read_text_file", Map.of("readOnlyHint", true));
+        small.store(tool, Map.of(), ToolResult.success(tool, "x".repeat(51)));
+
+        assertEquals(0, small.getEntryCount());
+        assertEquals(0, small.getSizeBytes());
+    }
+
+    @Test
+    void invalidateDropsOnlyThatServer() {
+        Tool forecast = tool("weather-server", "get-forecast", Map.of("readOnlyHint", true));
+        Tool time = tool("time-server", "convert_time", Map.of("readOnlyHint", true));
+        cache.store(forecast, Map.of(), ToolResult.success(forecast, "sunny"));
+        cache.store(time, Map.of(), ToolResult.success(time, "13:00"));
+
+        cache.invalidate("weather-server");
+
+        assertNull(cache.lookup(forecast, Map.of()));
+        assertNotNull(cache.lookup(time, Map.of()));
+        assertEquals(10, cache.getSizeBytes());
+    }
+
+    private static Tool tool(String serverId, String name, Map<String, Object> annotations) {
+        return new Tool(name, name, serverId, SCHEMA, annotations);
+    }
+}
@@ -0,0 +1,156 @@
+package com.gazapps.mcp.builtin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.gazapps.mcp.Tool;
+import com.gazapps.mcp.ToolResult;
+
+class FileSystemToolProviderTest {
+    private Path base;
+    private Path root;
+    private Path outside;
+    private FileSystemToolProvider provider;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        base = Files.createTempDirectory("fs-provider");
+        root = Files.createDirectory(base.resolve("root"));
+        outside = Files.createDirectory(base.resolve("outside"));
+        Files.writeString(outside.resolve("secret.txt"), "secret");
+        Files.writeString(root.resolve("notes.txt"), "notes");
+        provider = new FileSystemToolProvider(root);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(base)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void readsFilesInsideTheRoot() {
+        ToolResult result = call("read_file", Map.of("path", "notes.txt"));
+
+        assertTrue(result.success());
+        assertEquals("notes", result.content());
+    }
+
+    @Test
+    void rejectsParentTraversal() {
+        assertFalse(call("read_file", Map.of("path", "../outside/secret.txt")).success());
+        assertFalse(call("read_file", Map.of("path", outside.resolve("secret.txt").toString())).success());
+    }
+
+    @Test
+    void rejectsSymlinkThatEscapesTheRoot() throws IOException {
+        Files.createSymbolicLink(root.resolve("escape"), outside);
+
+        assertFalse(call("read_file", Map.of("path", "escape/secret.txt")).success());
+        assertFalse(call("list_directory", Map.of("path", "escape")).success());
+    }
+
+    @Test
+    void rejectsNewFileBelowAnEscapingSymlink() throws IOException {
+        Files.createSymbolicLink(root.resolve("escape"), outside);
+
+        ToolResult result = call("write_file", Map.of("path", "escape/new/created.txt", "content", "x"));
+
+        assertFalse(result.success());
+        assertFalse(Files.exists(outside.resolve("new")));
+    }
+
+    @Test
+    void rejectsWriteThroughDanglingSymlink() throws IOException {
+        Files.createSymbolicLink(root.resolve("dangling"), outside.resolve("planted.txt"));
+
+        assertFalse(call("write_file", Map.of("path", "dangling", "content", "x")).success());
+        assertFalse(Files.exists(outside.resolve("planted.txt")));
+    }
+
+    @Test
+    void allowsSymlinksThatStayInsideTheRoot() throws IOException {
+        Files.createDirectory(root.resolve("docs"));
+        Files.createSymbolicLink(root.resolve("alias"), root.resolve("docs"));
+
+        assertTrue(call("write_file", Map.of("path", "alias/new.txt", "content", "x")).success());
+        assertTrue(Files.exists(root.resolve("docs/new.txt")));
+    }
+
+    @Test
+    void acceptsRootReachedThroughASymlink() throws IOException {
+        Path linkedRoot = Files.createSymbolicLink(base.resolve("linked"), root);
+        FileSystemToolProvider linked = new FileSystemToolProvider(linkedRoot);
+
+        ToolResult result = linked.execute(tool(linked, "read_file"), Map.of("path", "notes.txt"));
+
+        assertTrue(result.success());
+    }
+
+    @Test
+    void readsTheHeadOrTailOfATextFile() throws IOException {
+        Files.writeString(root.resolve("lines.txt"), "one\ntwo\nthree\nfour");
+
+        assertEquals("one\ntwo", call("read_text_file", Map.of("path", "lines.txt", "head", 2)).content());
+        assertEquals("four", call("read_text_file", Map.of("path", "lines.txt", "tail", 1)).content());
+        assertFalse(call("read_text_file", Map.of("path", "lines.txt", "head", 1, "tail", 1)).success());
+    }
+
+    @Test
+    void editsFileAndReturnsADiff() throws IOException {
+        Files.writeString(root.resolve("config.txt"), "name=old\nport=80\n");
+        List<Object> edits = List.of(Map.of("oldText", "port=80", "newText", "port=8080"));
+
+        ToolResult preview = call("edit_file", Map.of("path", "config.txt", "edits", edits, "dryRun", true));
+        assertTrue(preview.content().contains("-port=80\n+port=8080"));
+        assertEquals("name=old\nport=80\n", Files.readString(root.resolve("config.txt")));
+
+        assertTrue(call("edit_file", Map.of("path", "config.txt", "edits", edits)).success());
+        assertEquals("name=old\nport=8080\n", Files.readString(root.resolve("config.txt")));
+    }
+
+    @Test
+    void editWithoutAnExactMatchChangesNothing() throws IOException {
+        Files.writeString(root.resolve("config.txt"), "a=1\n");
+        List<Object> edits = List.of(Map.of("oldText", "a=1", "newText", "a=2"), Map.of("oldText", "b=1", "newText", "b=2"));
+
+        assertFalse(call("edit_file", Map.of("path", "config.txt", "edits", edits)).success());
+        assertEquals("a=1\n", Files.readString(root.resolve("config.txt")));
+    }
+
+    @Test
+    void listsSizesAndBuildsATree() throws IOException {
+        Files.createDirectories(root.resolve("docs/api"));
+        Files.writeString(root.resolve("docs/api/index.md"), "0123456789");
+
+        String sizes = call("list_directory_with_sizes", Map.of("path", ".", "sortBy", "size")).content();
+        assertTrue(sizes.contains("[DIR]  docs"));
+        assertTrue(sizes.contains("notes.txt"));
+
+        String tree = call("directory_tree", Map.of("path", "docs")).content();
+        assertTrue(tree.contains("\"api\""));
+        assertTrue(tree.contains("\"index.md\""));
+    }
+
+    private ToolResult call(String toolName, Map<String, Object> args) {
+        return provider.execute(tool(provider, toolName), args);
+    }
+
+    private static Tool tool(FileSystemToolProvider provider, String toolName) {
+        return provider.tools().stream().filter(tool -> tool.name().equals(toolName)).findFirst().orElseThrow();
+    }
+}
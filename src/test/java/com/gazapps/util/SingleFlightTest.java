@@ -0,0 +1,99 @@
+package com.gazapps.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallersShareOneUpstreamCall() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flights.executeAsync("k", () -> upstream);
+        CompletableFuture<String> second = flights.executeAsync("k", () -> CompletableFuture.completedFuture("other"));
+        upstream.complete("value");
+
+        assertEquals("value", first.join());
+        assertEquals("value", second.join());
+        assertEquals(1L, flights.getCallCount());
+        assertEquals(1L, flights.getCoalescedCount());
+        assertEquals(0, flights.getInFlightCount());
+    }
+
+    @Test
+    void cancellingOneCallerKeepsTheFlightForTheOthers() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flights.executeAsync("k", () -> upstream);
+        CompletableFuture<String> second = flights.executeAsync("k", () -> upstream);
+        first.cancel(true);
+
+        assertFalse(upstream.isCancelled());
+        upstream.complete("value");
+        assertEquals("value", second.join());
+    }
+
+    @Test
+    void cancellingEveryCallerCancelsUpstreamAndReleasesTheKey() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flights.executeAsync("k", () -> upstream);
+        CompletableFuture<String> second = flights.executeAsync("k", () -> upstream);
+        first.cancel(true);
+        second.cancel(true);
+
+        assertTrue(upstream.isCancelled());
+        assertEquals(0, flights.getInFlightCount());
+        assertEquals("fresh", flights.executeAsync("k", () -> CompletableFuture.completedFuture("fresh")).join());
+    }
+
+    @Test
+    void blockingCallerKeepsAnAsyncFlightAliveWhenAsyncCallersCancel() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> async = flights.executeAsync("k", () -> upstream);
+        CompletableFuture<String> blocking = CompletableFuture.supplyAsync(() -> {
+            try {
+                return flights.execute("k", () -> "own call");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (flights.getCoalescedCount() == 0) {
+            Thread.sleep(5);
+        }
+
+        async.cancel(true);
+        assertFalse(upstream.isCancelled());
+
+        upstream.complete("shared");
+        assertEquals("shared", blocking.join());
+        assertEquals(1L, flights.getCallCount());
+    }
+
+    @Test
+    void errorFromTheSupplierReleasesTheKey() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+
+        assertThrows(AssertionError.class, () -> flights.executeAsync("k", () -> {
+            throw new AssertionError("boom");
+        }));
+        assertEquals(0, flights.getInFlightCount());
+
+        assertThrows(AssertionError.class, () -> flights.execute("k", () -> {
+            throw new AssertionError("boom");
+        }));
+        assertEquals(0, flights.getInFlightCount());
+        assertEquals("ok", flights.executeAsync("k", () -> CompletableFuture.completedFuture("ok")).join());
+    }
+}